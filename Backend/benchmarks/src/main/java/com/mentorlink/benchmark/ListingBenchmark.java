@@ -0,0 +1,107 @@
+package com.mentorlink.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mentorlink.cache.CacheInvalidationBus;
+import com.mentorlink.cache.EncodedResponse;
+import com.mentorlink.cache.EncodedResponseCache;
+import com.mentorlink.cache.InvalidationMessage;
+import com.mentorlink.cache.QuestionCache;
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionPageResponse;
+import com.mentorlink.dto.QuestionSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Cost of serving a 50-question listing page: a first-page cache hit, encoding
+ * the page to JSON (and gzip) as a response-cache miss does, a response-cache
+ * hit, and the keyset cursor round trip for the next page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListingBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    
+    private QuestionCache questionCache;
+    private EncodedResponseCache encoder;
+    private EncodedResponseCache responseCache;
+    private Page<QuestionSummary> page;
+    private QuestionPageResponse response;
+    private QuestionSummary last;
+    
+    @Setup
+    public void setUp() {
+        CacheInvalidationBus bus = new CacheInvalidationBus() {
+            @Override
+            public void publish(InvalidationMessage message) {
+            }
+            
+            @Override
+            public void subscribe(Consumer<InvalidationMessage> listener) {
+            }
+        };
+        questionCache = new QuestionCache(bus, true, 10_000, 600, 500, 3600);
+        
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        encoder = new EncodedResponseCache(objectMapper, false, 5000, 300, 1024, 1_048_576, 3600);
+        responseCache = new EncodedResponseCache(objectMapper, true, 5000, 3600, 1024, 1_048_576, 3600);
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<QuestionSummary> summaries = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            summaries.add(new QuestionSummary(String.format("%024x", i),
+                "How should I prepare for a system design interview, part " + i,
+                QuestionSummary.snippetOf("I have a few weeks before my interviews and want a plan. ".repeat(8)),
+                "engineering", List.of("interview", "system-design"), i, i % 4,
+                "author" + i, null, now.minusMinutes(i), now.minusMinutes(i)));
+        }
+        page = new PageImpl<>(summaries, PageRequest.of(0, PAGE_SIZE), 10_000);
+        response = new QuestionPageResponse(true, null, summaries, page.getTotalElements(), 0, PAGE_SIZE);
+        last = summaries.get(PAGE_SIZE - 1);
+        questionCache.getFirstPage(null, "-createdAt", PAGE_SIZE, () -> page);
+    }
+    
+    @Benchmark
+    public Page<QuestionSummary> firstPageCacheHit() {
+        return questionCache.getFirstPage(null, "-createdAt", PAGE_SIZE, () -> page);
+    }
+    
+    @Benchmark
+    public EncodedResponse encodePage() {
+        return encoder.get("questions", QuestionPageResponse.class, () -> response);
+    }
+    
+    @Benchmark
+    public EncodedResponse encodedPageCacheHit() {
+        return responseCache.get("questions", QuestionPageResponse.class, () -> response);
+    }
+    
+    @Benchmark
+    public QuestionCursor nextPageCursor() {
+        String token = QuestionCursor.after("createdAt", last).encode();
+        return QuestionCursor.decode(token, "createdAt");
+    }
+}
@@ -0,0 +1,115 @@
+package com.mentorlink.benchmark;
+
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mentorlink.search.QuestionSearchIndex;
+import com.mentorlink.search.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Search latency over a synthetic corpus: the in-memory BM25F index against a
+ * case-insensitive regex scan of every question, which is what the database
+ * fallback does before the index is ready.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    
+    private static final String[] WORDS = {
+        "spring", "mongo", "index", "query", "cache", "latency", "thread", "pool",
+        "career", "mentor", "interview", "resume", "python", "java", "kotlin", "react",
+        "product", "roadmap", "metrics", "design", "system", "scaling", "queue", "stream",
+        "model", "training", "feature", "pipeline", "startup", "pricing", "growth", "team"
+    };
+    private static final String[] CATEGORIES = {"engineering", "data-science", "business", "product", "general"};
+    
+    @Param({"10000", "100000"})
+    private int corpusSize;
+    
+    @Param({"spring cache", "mentor interview resume"})
+    private String query;
+    
+    private QuestionSearchIndex index;
+    private List<Question> corpus;
+    private Pattern scanPattern;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        index = new QuestionSearchIndex(null);
+        corpus = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            Question question = new Question();
+            question.setId(String.format("%024x", i));
+            question.setTitle(sentence(random, 8));
+            question.setContent(sentence(random, 60));
+            question.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            question.setTags(List.of(WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]));
+            question.setCreatedAt(now.minusMinutes(i));
+            List<Answer> answers = new ArrayList<>();
+            for (int a = random.nextInt(3); a > 0; a--) {
+                Answer answer = new Answer();
+                answer.setContent(sentence(random, 30));
+                answers.add(answer);
+            }
+            question.setAnswers(answers);
+            index.index(question);
+            corpus.add(question);
+        }
+        scanPattern = Pattern.compile(Pattern.quote(query.split(" ")[0]), Pattern.CASE_INSENSITIVE);
+    }
+    
+    @Benchmark
+    public SearchResult indexSearch() {
+        return index.search(query, null, 0, 20);
+    }
+    
+    @Benchmark
+    public SearchResult indexSearchInCategory() {
+        return index.search(query, "engineering", 0, 20);
+    }
+    
+    @Benchmark
+    public int regexScan() {
+        int matches = 0;
+        for (Question question : corpus) {
+            if (scanPattern.matcher(question.getTitle()).find() || scanPattern.matcher(question.getContent()).find()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+    
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mentorlink.benchmark;
+
+import com.mentorlink.service.VoteAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of buffered upvotes under contention. With one hot question every
+ * thread lands on the same stripe and LongAdder; with many, votes spread out.
+ * Run with -prof gc to see the allocation per vote.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpvoteBenchmark {
+    
+    @Param({"1", "1000"})
+    private int questions;
+    
+    private VoteAccumulator accumulator;
+    private String[] questionIds;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        accumulator = new VoteAccumulator(null, null);
+        questionIds = new String[questions];
+        for (int i = 0; i < questions; i++) {
+            questionIds[i] = String.format("%024x", i);
+        }
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void add() {
+        String questionId = questionIds[ThreadLocalRandom.current().nextInt(questionIds.length)];
+        accumulator.add(questionId, 1);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mentorlink.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows observed latency (gradient algorithm).
+ *
+ * A fast moving average of request latency is compared with a slow one, the
+ * latency the backend delivers when nothing is queueing. While the two agree
+ * (within {@code tolerance}) the limit grows by about its square root per
+ * adjustment, as long as the traffic actually uses it. When recent latency
+ * climbs, the limit shrinks in proportion, by at most half per adjustment.
+ * Requests beyond the limit are rejected instead of queueing.
+ *
+ * A limiter whose minimum and maximum are equal (see {@link #fixed}) keeps
+ * its limit and takes no latency samples.
+ */
+public class AdaptiveLimiter implements MeterBinder {
+    
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 0.005;
+    private static final double SMOOTHING = 0.2;
+    
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    
+    private volatile double limit;
+    
+    // Guarded by this
+    private double shortLatencyNanos;
+    private double longLatencyNanos;
+    
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    /**
+     * Limiter that never adapts, for requests whose latency says nothing
+     * about load
+     */
+    public static AdaptiveLimiter fixed(String name, int limit) {
+        return new AdaptiveLimiter(name, limit, limit, limit, 1.0);
+    }
+    
+    /**
+     * Take a slot, or return false when the limit is reached
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Give back a slot taken with {@link #tryAcquire} and adjust the limit to
+     * the latency of the request that held it
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (minLimit < maxLimit) {
+            update(latencyNanos, inFlightBefore);
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    private synchronized void update(long latencyNanos, int inFlightBefore) {
+        if (longLatencyNanos == 0) {
+            shortLatencyNanos = latencyNanos;
+            longLatencyNanos = latencyNanos;
+            return;
+        }
+        shortLatencyNanos += SHORT_ALPHA * (latencyNanos - shortLatencyNanos);
+        longLatencyNanos += LONG_ALPHA * (latencyNanos - longLatencyNanos);
+        // Latency has dropped well below the long-term average: let the average catch up
+        if (longLatencyNanos > 2 * shortLatencyNanos) {
+            longLatencyNanos *= 0.95;
+        }
+        
+        double current = limit;
+        if (inFlightBefore < current / 2) {
+            // Traffic is not using the limit, so latency says nothing about it
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatencyNanos / shortLatencyNanos));
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("forum.admission.limit", this, AdaptiveLimiter::getLimit)
+            .tag("budget", name).register(registry);
+        Gauge.builder("forum.admission.in-flight", this, AdaptiveLimiter::getInFlight)
+            .tag("budget", name).register(registry);
+        FunctionCounter.builder("forum.admission.rejected", rejected, AtomicLong::get)
+            .tag("budget", name).register(registry);
+    }
+}
@@ -0,0 +1,148 @@
+package com.mentorlink.admission;
+
+import com.mentorlink.cache.EncodedResponse;
+import com.mentorlink.cache.EncodedResponseCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Sheds load before it queues up. Every forum request is classified into a
+ * budget: bulk transfers (import and export), writes, expensive reads
+ * (search and listing pages past forum.admission.deep-page) or cheap reads
+ * (everything else). Each budget has its own {@link AdaptiveLimiter}, so
+ * slow searches cannot starve single-question reads or writes. Bulk
+ * transfers run for as long as their payload takes, so their limit is fixed
+ * rather than adapted to their latency.
+ *
+ * A request over its budget's limit is answered right away with a
+ * Retry-After header: 429 for bulk transfers and expensive reads, which
+ * clients should back off from, 503 otherwise. With forum.admission.serve-stale, a rejected GET of a
+ * question or listing page that was served before gets the last encoded copy
+ * instead, marked with a Warning header.
+ *
+ * Event streams are not limited; they hold no thread while idle.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+    
+    public enum Budget {
+        BULK,
+        CHEAP_READ,
+        EXPENSIVE_READ,
+        WRITE
+    }
+    
+    private static final byte[] BUSY_BODY =
+        "{\"success\":false,\"message\":\"Server is busy, please retry later\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    
+    private final Map<Budget, AdaptiveLimiter> limiters;
+    private final EncodedResponseCache responseCache;
+    private final int deepPage;
+    private final int retryAfterSeconds;
+    private final boolean serveStale;
+    
+    public AdmissionFilter(Map<Budget, AdaptiveLimiter> limiters, EncodedResponseCache responseCache,
+                           int deepPage, int retryAfterSeconds, boolean serveStale) {
+        this.limiters = limiters;
+        this.responseCache = responseCache;
+        this.deepPage = deepPage;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.serveStale = serveStale;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        
+        if (request.getRequestURI().endsWith("/events")) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        Budget budget = budgetOf(request);
+        AdaptiveLimiter limiter = limiters.get(budget);
+        if (!limiter.tryAcquire()) {
+            reject(request, response, budget);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+    
+    private Budget budgetOf(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.endsWith("/questions/import") || uri.endsWith("/questions/export")) {
+            return Budget.BULK;
+        }
+        String method = request.getMethod();
+        if ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method)) {
+            return Budget.WRITE;
+        }
+        if (uri.endsWith("/questions/search") || pageOf(request) > deepPage) {
+            return Budget.EXPENSIVE_READ;
+        }
+        return Budget.CHEAP_READ;
+    }
+    
+    private static int pageOf(HttpServletRequest request) {
+        String page = request.getParameter("page");
+        if (page == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(page);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response, Budget budget) throws IOException {
+        if (serveStale && "GET".equals(request.getMethod())) {
+            EncodedResponse stale = responseCache.latest(EncodedResponseCache.requestKey(request));
+            if (stale != null) {
+                boolean gzip = stale.gzipFor(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+                response.setStatus(HttpStatus.OK.value());
+                response.setHeader(HttpHeaders.WARNING, STALE_WARNING);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                if (stale.getGzip() != null) {
+                    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                if (gzip) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                }
+                write(response, gzip ? stale.getGzip() : stale.getJson());
+                return;
+            }
+        }
+        
+        HttpStatus status = budget == Budget.BULK || budget == Budget.EXPENSIVE_READ
+            ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        write(response, BUSY_BODY);
+    }
+    
+    private static void write(HttpServletResponse response, byte[] body) throws IOException {
+        // Rejected before reaching the controller's @CrossOrigin handling
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
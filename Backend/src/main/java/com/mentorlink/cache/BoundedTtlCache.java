@@ -0,0 +1,139 @@
+package com.mentorlink.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe cache bounded by entry count (least recently used entries
+ * are evicted first) with a fixed time-to-live per entry.
+ */
+public class BoundedTtlCache<K, V> {
+    
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Cached value, or null when absent or expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+    
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+    
+    /**
+     * Store the value only if the condition, checked atomically with the
+     * insert, still holds. Lets read-through callers skip storing a value
+     * that was invalidated while they were loading it.
+     */
+    public boolean putIf(K key, V value, BooleanSupplier condition) {
+        synchronized (entries) {
+            if (!condition.getAsBoolean()) {
+                return false;
+            }
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+            return true;
+        }
+    }
+    
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+    
+    /**
+     * Remove the entry for key if its value matches the predicate
+     */
+    public void invalidateIf(K key, Predicate<V> predicate) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && predicate.test(entry.value)) {
+                entries.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Remove every entry matching the predicate
+     */
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        synchronized (entries) {
+            entries.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value));
+        }
+    }
+    
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long hitCount() {
+        return hits.sum();
+    }
+    
+    public long missCount() {
+        return misses.sum();
+    }
+    
+    public long evictionCount() {
+        return evictions.sum();
+    }
+    
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.mentorlink.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport that carries question cache invalidations between backend nodes
+ */
+public interface CacheInvalidationBus {
+    
+    /**
+     * Announce a local change to the other nodes
+     */
+    void publish(InvalidationMessage message);
+    
+    /**
+     * Receive changes announced by any node (possibly including this one)
+     */
+    void subscribe(Consumer<InvalidationMessage> listener);
+}
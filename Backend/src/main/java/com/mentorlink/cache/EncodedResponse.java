@@ -0,0 +1,29 @@
+package com.mentorlink.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A JSON response body encoded once, plus its gzip encoding when the body is
+ * large enough to be worth compressing
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedResponse {
+    
+    private final byte[] json;
+    
+    /** Gzip-compressed json, or null when the body is sent uncompressed */
+    private final byte[] gzip;
+    
+    /**
+     * Whether to send the gzip encoding to a client with this Accept-Encoding
+     */
+    public boolean gzipFor(String acceptEncoding) {
+        return gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+    
+    public int size() {
+        return json.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mentorlink.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON bodies of the hottest read responses (single
+ * questions and listing pages), so an unchanged response is written straight
+ * from a byte array instead of being serialized again.
+ *
+ * Keys embed the version tag of the content (the same one used for ETags),
+ * which makes every entry an immutable snapshot: a change produces a new key
+ * and the old entry simply ages out. Bodies of at least
+ * forum.response-cache.gzip-min-bytes are also kept gzip-compressed.
+ *
+ * Each envelope type is encoded with its own ObjectWriter, created once.
+ *
+ * Separately, the last response served for each request URL is kept for
+ * forum.response-cache.stale-ttl-seconds, for load shedding to fall back on.
+ */
+@Component
+public class EncodedResponseCache implements MeterBinder {
+    
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int gzipMinBytes;
+    private final int maxEntryBytes;
+    private final BoundedTtlCache<String, EncodedResponse> entries;
+    private final BoundedTtlCache<String, EncodedResponse> latest;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    
+    public EncodedResponseCache(ObjectMapper objectMapper,
+                                @Value("${forum.response-cache.enabled:true}") boolean enabled,
+                                @Value("${forum.response-cache.max-entries:5000}") int maxEntries,
+                                @Value("${forum.response-cache.ttl-seconds:300}") long ttlSeconds,
+                                @Value("${forum.response-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+                                @Value("${forum.response-cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                                @Value("${forum.response-cache.stale-ttl-seconds:3600}") long staleTtlSeconds) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.gzipMinBytes = gzipMinBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = new BoundedTtlCache<>(maxEntries, ttlSeconds * 1000);
+        this.latest = new BoundedTtlCache<>(maxEntries, staleTtlSeconds * 1000);
+    }
+    
+    /**
+     * The response cached under key, or body encoded as type (and cached).
+     * body is only called on a miss.
+     */
+    public <T> EncodedResponse get(String key, Class<T> type, Supplier<T> body) {
+        if (!enabled) {
+            return encode(type, body.get());
+        }
+        
+        EncodedResponse cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        EncodedResponse encoded = encode(type, body.get());
+        if (encoded.size() <= maxEntryBytes) {
+            entries.put(key, encoded);
+        }
+        return encoded;
+    }
+    
+    /**
+     * Remember body as the last response served for a request URL
+     */
+    public void rememberLatest(String requestKey, EncodedResponse body) {
+        if (enabled && body.size() <= maxEntryBytes) {
+            latest.put(requestKey, body);
+        }
+    }
+    
+    /**
+     * The last response served for a request URL, possibly stale, or null
+     */
+    public EncodedResponse latest(String requestKey) {
+        return latest.get(requestKey);
+    }
+    
+    public static String requestKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query != null ? request.getRequestURI() + "?" + query : request.getRequestURI();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        QuestionCache.bind(registry, "encoded-response", entries);
+        QuestionCache.bind(registry, "stale-response", latest);
+    }
+    
+    private <T> EncodedResponse encode(Class<T> type, T body) {
+        try {
+            byte[] json = writers.computeIfAbsent(type, objectMapper::writerFor).writeValueAsBytes(body);
+            return new EncodedResponse(json, json.length >= gzipMinBytes ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode response", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
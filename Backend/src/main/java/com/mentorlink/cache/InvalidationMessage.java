@@ -0,0 +1,40 @@
+package com.mentorlink.cache;
+
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.push.PushEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache invalidation notice exchanged between backend nodes. {@code version}
+ * is the question's revision (its version field) after the change, or
+ * {@link #UNKNOWN_VERSION} when the sender does not know it (e.g. deletes).
+ *
+ * The same transport relays server-sent events between nodes: those
+ * messages carry a {@code push} event and are not invalidations, since the
+ * change's invalidation is announced separately.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvalidationMessage {
+    
+    public static final long UNKNOWN_VERSION = Long.MAX_VALUE;
+    
+    private QuestionChangedEvent.Type type;
+    
+    private String questionId;
+    
+    private long version;
+    
+    /** Node that made the change, so it can ignore its own messages */
+    private String origin;
+    
+    /** Event for push subscribers on other nodes, null for invalidations */
+    private PushEvent push;
+    
+    public InvalidationMessage(QuestionChangedEvent.Type type, String questionId, long version, String origin) {
+        this(type, questionId, version, origin, null);
+    }
+}
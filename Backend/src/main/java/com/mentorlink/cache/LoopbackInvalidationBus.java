@@ -0,0 +1,41 @@
+package com.mentorlink.cache;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory transport: delivers every message to all buses in this JVM. With
+ * one application context this is a no-op fan-out to itself; with several
+ * contexts in one JVM (multi-node tests) it connects them like a network.
+ */
+public class LoopbackInvalidationBus implements CacheInvalidationBus {
+    
+    private static final List<LoopbackInvalidationBus> BUSES = new CopyOnWriteArrayList<>();
+    
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    
+    public LoopbackInvalidationBus() {
+        BUSES.add(this);
+    }
+    
+    @Override
+    public void publish(InvalidationMessage message) {
+        for (LoopbackInvalidationBus bus : BUSES) {
+            for (Consumer<InvalidationMessage> listener : bus.listeners) {
+                listener.accept(message);
+            }
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+    
+    @PreDestroy
+    public void close() {
+        BUSES.remove(this);
+    }
+}
@@ -0,0 +1,194 @@
+package com.mentorlink.cache;
+
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transport backed by a change stream on the questions collection. Every
+ * node watches the collection directly, so writes made by any node (or by
+ * anything else touching the collection) are seen without an explicit
+ * publish. Versions come from the revision the write stored.
+ *
+ * Messages that carry a push event have no write of their own to show up,
+ * so publishing one inserts it into a relay collection that is watched on
+ * the same stream; relayed messages expire after a minute.
+ */
+public class MongoChangeStreamInvalidationBus implements CacheInvalidationBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoChangeStreamInvalidationBus.class);
+    private static final String ORIGIN = "mongo-change-stream";
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long RELAY_TTL_SECONDS = 60;
+    
+    private final MongoTemplate mongoTemplate;
+    private final String collection;
+    private final String relayCollection;
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+    
+    private volatile boolean running;
+    private volatile MongoCursor<ChangeStreamDocument<Document>> cursor;
+    private BsonDocument resumeToken;
+    
+    public MongoChangeStreamInvalidationBus(MongoTemplate mongoTemplate, String collection, String relayCollection) {
+        this.mongoTemplate = mongoTemplate;
+        this.collection = collection;
+        this.relayCollection = relayCollection;
+    }
+    
+    @Override
+    public void publish(InvalidationMessage message) {
+        // Invalidations need nothing sent: the write itself shows up on every node's change stream
+        if (message.getPush() == null) {
+            return;
+        }
+        Document relayed = new Document();
+        mongoTemplate.getConverter().write(message, relayed);
+        relayed.put("createdAt", new Date());
+        try {
+            mongoTemplate.getCollection(relayCollection).insertOne(relayed);
+        } catch (Exception e) {
+            logger.warn("Failed to relay {} push event for question {}", message.getType(), message.getQuestionId(), e);
+        }
+    }
+    
+    @Override
+    public synchronized void subscribe(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+        if (!running) {
+            running = true;
+            mongoTemplate.getCollection(relayCollection).createIndex(Indexes.ascending("createdAt"),
+                new IndexOptions().expireAfter(RELAY_TTL_SECONDS, TimeUnit.SECONDS));
+            Thread watcher = new Thread(this::watch, "question-change-stream");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        running = false;
+        MongoCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    private void watch() {
+        while (running) {
+            try {
+                ChangeStreamIterable<Document> stream = mongoTemplate.getDb().watch(List.of(
+                    Aggregates.match(Filters.in("ns.coll", collection, relayCollection))));
+                cursor = resumeToken == null ? stream.iterator() : stream.resumeAfter(resumeToken).iterator();
+                while (running && cursor.hasNext()) {
+                    ChangeStreamDocument<Document> change = cursor.next();
+                    resumeToken = change.getResumeToken();
+                    InvalidationMessage message = isRelayed(change) ? relayedMessage(change) : toMessage(change);
+                    if (message != null) {
+                        listeners.forEach(listener -> listener.accept(message));
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Question change stream interrupted, reconnecting", e);
+                sleepBeforeRetry();
+            }
+        }
+    }
+    
+    private boolean isRelayed(ChangeStreamDocument<Document> change) {
+        return change.getNamespace() != null && relayCollection.equals(change.getNamespace().getCollectionName());
+    }
+    
+    /**
+     * A message published by some node; only inserts carry one, the rest are expiries
+     */
+    private InvalidationMessage relayedMessage(ChangeStreamDocument<Document> change) {
+        if (change.getOperationType() != OperationType.INSERT || change.getFullDocument() == null) {
+            return null;
+        }
+        return mongoTemplate.getConverter().read(InvalidationMessage.class, change.getFullDocument());
+    }
+    
+    private static InvalidationMessage toMessage(ChangeStreamDocument<Document> change) {
+        if (change.getDocumentKey() == null) {
+            return null;
+        }
+        BsonValue key = change.getDocumentKey().get("_id");
+        String id = key instanceof BsonObjectId ? ((BsonObjectId) key).getValue().toHexString() : key.asString().getValue();
+        
+        switch (change.getOperationType()) {
+            case INSERT:
+                return new InvalidationMessage(QuestionChangedEvent.Type.CREATED, id,
+                    versionOf(change.getFullDocument()), ORIGIN);
+            case REPLACE:
+                return new InvalidationMessage(QuestionChangedEvent.Type.UPDATED, id,
+                    versionOf(change.getFullDocument()), ORIGIN);
+            case UPDATE:
+                return fromUpdate(id, change.getUpdateDescription());
+            case DELETE:
+                return new InvalidationMessage(QuestionChangedEvent.Type.DELETED, id,
+                    InvalidationMessage.UNKNOWN_VERSION, ORIGIN);
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Classify a partial update by the fields it touched
+     */
+    private static InvalidationMessage fromUpdate(String id, UpdateDescription description) {
+        BsonDocument updated = description != null && description.getUpdatedFields() != null
+            ? description.getUpdatedFields() : new BsonDocument();
+        
+        QuestionChangedEvent.Type type = QuestionChangedEvent.Type.UPDATED;
+        if (updated.keySet().stream().anyMatch(field -> field.startsWith("answer"))) {
+            type = QuestionChangedEvent.Type.ANSWER_ADDED;
+        } else if (updated.containsKey("upvotes")) {
+            type = QuestionChangedEvent.Type.UPVOTED;
+        }
+        
+        // Every write increments the revision, so it is among the updated fields
+        BsonValue revision = updated.get("version");
+        long version = revision != null && revision.isNumber()
+            ? revision.asNumber().longValue() : InvalidationMessage.UNKNOWN_VERSION;
+        return new InvalidationMessage(type, id, version, ORIGIN);
+    }
+    
+    private static long versionOf(Document document) {
+        Object revision = document != null ? document.get("version") : null;
+        return revision instanceof Number ? ((Number) revision).longValue() : InvalidationMessage.UNKNOWN_VERSION;
+    }
+    
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.mentorlink.cache;
+
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Question;
+import com.mentorlink.event.QuestionChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of QuestionService for the two hottest reads:
+ * single questions by id (size-bounded LRU) and first listing pages per
+ * category/sort/limit (short TTL).
+ *
+ * Entries are invalidated from {@link QuestionChangedEvent}s. A question is
+ * evicted whenever it changes; a cached page is evicted when it contains the
+ * changed question or when the change can move other questions into it
+ * (creates, deletes, edits, and votes on upvote-sorted pages). Loads that race
+ * with an invalidation are not stored.
+ *
+ * Local changes are also announced on the {@link CacheInvalidationBus} so
+ * other backend nodes can drop their copies. Those messages carry the
+ * question's revision (its version field, which every write increments),
+ * and a remote message only evicts a cached question at an older revision,
+ * so a late message cannot evict a newer entry.
+ *
+ * The cache also keeps this node's listing revision, the version tag of the
+ * question listings. It advances after every invalidation, local or remote,
+ * once the affected first pages are gone, so a tag read before a listing is
+ * built is never newer than the first page it is served with.
+ */
+@Component
+public class QuestionCache implements MeterBinder {
+    
+    private static final int STAMP_SLOTS = 1024;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final CacheInvalidationBus invalidationBus;
+    private final BoundedTtlCache<String, CachedQuestion> questions;
+    private final BoundedTtlCache<String, CachedPage> firstPages;
+    
+    private final AtomicLongArray questionStamps = new AtomicLongArray(STAMP_SLOTS);
+    private final AtomicLong pageEpoch = new AtomicLong();
+    private final AtomicLong listingRevision = new AtomicLong();
+    
+    public QuestionCache(CacheInvalidationBus invalidationBus,
+                         @Value("${forum.cache.enabled:true}") boolean enabled,
+                         @Value("${forum.cache.questions.max-size:10000}") int questionMaxSize,
+                         @Value("${forum.cache.questions.ttl-seconds:600}") long questionTtlSeconds,
+                         @Value("${forum.cache.pages.max-size:500}") int pageMaxSize,
+                         @Value("${forum.cache.pages.ttl-seconds:5}") long pageTtlSeconds) {
+        this.enabled = enabled;
+        this.invalidationBus = invalidationBus;
+        this.questions = new BoundedTtlCache<>(questionMaxSize, questionTtlSeconds * 1000);
+        this.firstPages = new BoundedTtlCache<>(pageMaxSize, pageTtlSeconds * 1000);
+    }
+    
+    @PostConstruct
+    public void subscribe() {
+        invalidationBus.subscribe(this::onRemoteInvalidation);
+    }
+    
+    /**
+     * Cached question, or the loader's result which is then cached
+     */
+    public Question getQuestion(String id, Function<String, Question> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        
+        CachedQuestion cached = questions.get(id);
+        if (cached != null) {
+            return cached.question;
+        }
+        
+        int slot = slot(id);
+        long stamp = questionStamps.get(slot);
+        Question loaded = loader.apply(id);
+        questions.putIf(id, new CachedQuestion(loaded), () -> questionStamps.get(slot) == stamp);
+        return loaded;
+    }
+    
+    /**
+     * Cached first listing page, or the loader's result which is then cached.
+     * {@code category} is null for the unfiltered listing.
+     */
+    public Page<QuestionSummary> getFirstPage(String category, String sort, int limit,
+                                              Supplier<Page<QuestionSummary>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        
+        String key = (category != null ? category : "*") + "|" + sort + "|" + limit;
+        CachedPage cached = firstPages.get(key);
+        if (cached != null) {
+            return cached.page;
+        }
+        
+        long epoch = pageEpoch.get();
+        Page<QuestionSummary> loaded = loader.get();
+        firstPages.putIf(key, new CachedPage(loaded, sort.replace("-", "")), () -> pageEpoch.get() == epoch);
+        return loaded;
+    }
+    
+    /**
+     * Version tag of the question listings on this node. Tags differ between
+     * nodes and restarts, which only costs a full response.
+     */
+    public String listingVersion() {
+        return nodeId.substring(0, 8) + "-" + Long.toHexString(listingRevision.get());
+    }
+    
+    /**
+     * Drop every cached question and first page, for writes to many
+     * questions that publish no change events
+     */
+    public void invalidateAll() {
+        for (int slot = 0; slot < STAMP_SLOTS; slot++) {
+            questionStamps.incrementAndGet(slot);
+        }
+        questions.invalidateAll();
+        invalidateListings();
+    }
+    
+    /**
+     * Drop every cached first page, for writes that publish no change event
+     */
+    public void invalidateListings() {
+        pageEpoch.incrementAndGet();
+        firstPages.invalidateAll();
+        listingRevision.incrementAndGet();
+    }
+    
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        String id = event.getQuestionId();
+        questionStamps.incrementAndGet(slot(id));
+        questions.invalidate(id);
+        invalidatePages(event.getType(), id);
+        
+        Question question = event.getQuestion();
+        long version = question != null && question.getVersion() != null
+            ? question.getVersion() : InvalidationMessage.UNKNOWN_VERSION;
+        invalidationBus.publish(new InvalidationMessage(event.getType(), id, version, nodeId));
+    }
+    
+    /**
+     * Apply an invalidation announced by another node
+     */
+    void onRemoteInvalidation(InvalidationMessage message) {
+        if (nodeId.equals(message.getOrigin()) || message.getPush() != null) {
+            return;
+        }
+        
+        String id = message.getQuestionId();
+        questionStamps.incrementAndGet(slot(id));
+        questions.invalidateIf(id, cached -> cached.version < message.getVersion());
+        invalidatePages(message.getType(), id);
+    }
+    
+    private void invalidatePages(QuestionChangedEvent.Type type, String id) {
+        pageEpoch.incrementAndGet();
+        switch (type) {
+            case UPVOTED:
+                firstPages.invalidateIf((key, page) ->
+                    page.ids.contains(id) || "upvotes".equals(page.sortField) || "updatedAt".equals(page.sortField));
+                break;
+            case ANSWER_ADDED:
+                firstPages.invalidateIf((key, page) ->
+                    page.ids.contains(id) || "updatedAt".equals(page.sortField));
+                break;
+            default:
+                firstPages.invalidateAll();
+                break;
+        }
+        listingRevision.incrementAndGet();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "question", questions);
+        bind(registry, "question-first-page", firstPages);
+    }
+    
+    static void bind(MeterRegistry registry, String name, BoundedTtlCache<?, ?> cache) {
+        FunctionCounter.builder("forum.cache.gets", cache, BoundedTtlCache::hitCount)
+            .tag("cache", name).tag("result", "hit").register(registry);
+        FunctionCounter.builder("forum.cache.gets", cache, BoundedTtlCache::missCount)
+            .tag("cache", name).tag("result", "miss").register(registry);
+        FunctionCounter.builder("forum.cache.evictions", cache, BoundedTtlCache::evictionCount)
+            .tag("cache", name).register(registry);
+        Gauge.builder("forum.cache.size", cache, BoundedTtlCache::size)
+            .tag("cache", name).register(registry);
+    }
+    
+    /**
+     * Revision of a loaded question. Documents never written since
+     * revisions were introduced have none and are older than any message.
+     */
+    private static long versionOf(Question question) {
+        return question.getVersion() != null ? question.getVersion() : -1;
+    }
+    
+    private static int slot(String id) {
+        return (id.hashCode() & 0x7fffffff) % STAMP_SLOTS;
+    }
+    
+    private static final class CachedQuestion {
+        private final Question question;
+        private final long version;
+        
+        private CachedQuestion(Question question) {
+            this.question = question;
+            this.version = versionOf(question);
+        }
+    }
+    
+    private static final class CachedPage {
+        private final Page<QuestionSummary> page;
+        private final Set<String> ids = new HashSet<>();
+        private final String sortField;
+        
+        private CachedPage(Page<QuestionSummary> page, String sortField) {
+            this.page = page;
+            this.sortField = sortField;
+            for (QuestionSummary summary : page.getContent()) {
+                ids.add(summary.getId());
+            }
+        }
+    }
+}
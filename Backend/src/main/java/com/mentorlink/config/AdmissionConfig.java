@@ -0,0 +1,57 @@
+package com.mentorlink.config;
+
+import com.mentorlink.admission.AdaptiveLimiter;
+import com.mentorlink.admission.AdmissionFilter;
+import com.mentorlink.cache.EncodedResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Admission control for the forum API: an adaptive concurrency limit per
+ * request budget (cheap reads, expensive reads, writes), enforced by
+ * {@link AdmissionFilter}. Each budget starts at a quarter of its
+ * forum.admission.*.max-limit. Imports and exports share a fixed limit of
+ * forum.admission.bulk.max-concurrent. forum.admission.enabled=false turns
+ * it off.
+ */
+@Configuration
+@ConditionalOnProperty(name = "forum.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+    
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+        MeterRegistry registry,
+        EncodedResponseCache responseCache,
+        @Value("${forum.admission.cheap-read.max-limit:400}") int cheapReadMaxLimit,
+        @Value("${forum.admission.expensive-read.max-limit:40}") int expensiveReadMaxLimit,
+        @Value("${forum.admission.write.max-limit:100}") int writeMaxLimit,
+        @Value("${forum.admission.bulk.max-concurrent:2}") int bulkMaxConcurrent,
+        @Value("${forum.admission.tolerance:2.0}") double tolerance,
+        @Value("${forum.admission.deep-page:10}") int deepPage,
+        @Value("${forum.admission.retry-after-seconds:1}") int retryAfterSeconds,
+        @Value("${forum.admission.serve-stale:true}") boolean serveStale) {
+        
+        Map<AdmissionFilter.Budget, AdaptiveLimiter> limiters = new EnumMap<>(AdmissionFilter.Budget.class);
+        limiters.put(AdmissionFilter.Budget.CHEAP_READ, limiter("cheap-read", cheapReadMaxLimit, tolerance));
+        limiters.put(AdmissionFilter.Budget.EXPENSIVE_READ, limiter("expensive-read", expensiveReadMaxLimit, tolerance));
+        limiters.put(AdmissionFilter.Budget.WRITE, limiter("write", writeMaxLimit, tolerance));
+        limiters.put(AdmissionFilter.Budget.BULK, AdaptiveLimiter.fixed("bulk", Math.max(1, bulkMaxConcurrent)));
+        limiters.values().forEach(limiter -> limiter.bindTo(registry));
+        
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+            new AdmissionFilter(limiters, responseCache, deepPage, retryAfterSeconds, serveStale));
+        registration.addUrlPatterns("/api/forum/*");
+        return registration;
+    }
+    
+    private static AdaptiveLimiter limiter(String name, int maxLimit, double tolerance) {
+        return new AdaptiveLimiter(name, Math.max(1, maxLimit / 4), Math.max(1, maxLimit / 20), maxLimit, tolerance);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mentorlink.config;
+
+import com.mentorlink.cache.CacheInvalidationBus;
+import com.mentorlink.cache.LoopbackInvalidationBus;
+import com.mentorlink.cache.MongoChangeStreamInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Selects how question cache invalidations reach the other backend nodes:
+ * forum.cache.invalidation.transport=loopback (default, in-JVM only) or
+ * mongo (change stream on the questions collection, needs a replica set).
+ * Push events for server-sent-event subscribers travel the same way.
+ */
+@Configuration
+public class CacheInvalidationConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "forum.cache.invalidation.transport", havingValue = "mongo")
+    public CacheInvalidationBus mongoChangeStreamInvalidationBus(MongoTemplate mongoTemplate) {
+        return new MongoChangeStreamInvalidationBus(mongoTemplate, "questions", "question_push_relay");
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "forum.cache.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+    public CacheInvalidationBus loopbackInvalidationBus() {
+        return new LoopbackInvalidationBus();
+    }
+}
@@ -0,0 +1,48 @@
+package com.mentorlink.config;
+
+import com.mentorlink.metrics.MongoCommandMetrics;
+import com.mentorlink.metrics.RequestMetricsFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Forum instrumentation: @Timed support for the controller and service,
+ * per-request Mongo round-trip, DBRef and response size distributions, and
+ * slow Mongo command sampling. Everything is published to the Micrometer
+ * registry and exposed through the actuator metrics (and prometheus)
+ * endpoints.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+    
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(
+        MeterRegistry registry,
+        @Value("${forum.metrics.slow-query-ms:100}") long slowQueryMs,
+        @Value("${forum.metrics.slow-query-log-interval-ms:60000}") long logIntervalMs) {
+        return new MongoCommandMetrics(registry, slowQueryMs, logIntervalMs);
+    }
+    
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics listener) {
+        return settings -> settings.addCommandListener(listener);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry registry) {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+            new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+        registration.addUrlPatterns("/api/forum/*");
+        return registration;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mentorlink.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the periodic background jobs used by the forum (vote flushing etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
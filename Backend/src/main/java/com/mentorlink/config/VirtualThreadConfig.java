@@ -0,0 +1,48 @@
+package com.mentorlink.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * forum.execution.mode=virtual serves requests on virtual threads (one per
+ * request) instead of Tomcat's bounded worker pool, so requests blocked on
+ * Mongo no longer cap concurrency at the pool size. Needs a Java 21+
+ * runtime; on older runtimes the platform pool is kept and a warning is
+ * logged. The default mode, platform, leaves Tomcat unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "forum.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            logger.warn("forum.execution.mode=virtual requires Java 21+, keeping the platform thread pool");
+            return handler -> { };
+        }
+        logger.info("Serving requests on virtual threads");
+        return handler -> handler.setExecutor(executor);
+    }
+    
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor(), looked up reflectively so
+     * the application still compiles and runs on pre-21 JDKs
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
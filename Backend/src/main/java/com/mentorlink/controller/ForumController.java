@@ -1,55 +1,148 @@
 package com.mentorlink.controller;
 
+import com.mentorlink.cache.EncodedResponse;
+import com.mentorlink.cache.EncodedResponseCache;
 import com.mentorlink.dto.AddAnswerRequest;
+import com.mentorlink.dto.AnswerDelta;
 import com.mentorlink.dto.CreateQuestionRequest;
+import com.mentorlink.dto.CursorPage;
+import com.mentorlink.dto.FacetCount;
+import com.mentorlink.dto.ForumFacets;
+import com.mentorlink.dto.ImportReport;
+import com.mentorlink.dto.QuestionDelta;
+import com.mentorlink.dto.QuestionPageResponse;
+import com.mentorlink.dto.QuestionResponse;
+import com.mentorlink.dto.QuestionSliceResponse;
+import com.mentorlink.dto.QuestionSummary;
 import com.mentorlink.dto.UpdateQuestionRequest;
+import com.mentorlink.entity.Answer;
 import com.mentorlink.entity.Question;
 import com.mentorlink.service.QuestionService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/forum")
+@Timed(value = "forum.http", histogram = true)
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class ForumController {
     
     private static final Logger logger = LoggerFactory.getLogger(ForumController.class);
     private final QuestionService questionService;
+    private final EncodedResponseCache responseCache;
     
     /**
-     * Get all questions with pagination
+     * Get all questions with pagination. Passing {@code cursor} (empty for the
+     * first slice) switches from page/offset to keyset pagination. Passing
+     * {@code since} (epoch millis of the last sync) returns only what changed
+     * since then. Passing {@code tag} (repeatable) lists only questions with
+     * all of the tags, or any of them with {@code tagMatch=any}, in the same
+     * sort orders. Listings carry an ETag and answer If-None-Match with 304.
      */
     @GetMapping("/questions")
     public ResponseEntity<?> getAllQuestions(
         @RequestParam(defaultValue = "1") int page,
         @RequestParam(defaultValue = "50") int limit,
-        @RequestParam(defaultValue = "-createdAt") String sort) {
+        @RequestParam(defaultValue = "-createdAt") String sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        @RequestParam(required = false) Long since,
+        @RequestParam(required = false) List<String> tag,
+        @RequestParam(defaultValue = "all") String tagMatch,
+        ServletWebRequest webRequest) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] GET /api/forum/questions - Fetching all questions");
-            Page<Question> questions = questionService.getAllQuestions(page, limit, sort);
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions - Fetching all questions");
+            if (since != null) {
+                QuestionDelta delta = questionService.getQuestionsSince(since, cursor, limit);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Question changes retrieved successfully");
+                response.put("questions", delta.getQuestions());
+                response.put("deleted", delta.getDeleted());
+                response.put("nextCursor", delta.getNextCursor());
+                response.put("hasMore", delta.getNextCursor() != null);
+                response.put("syncedAt", delta.getSyncedAt());
+                response.put("resync", delta.isResync());
+                
+                return ResponseEntity.ok(response);
+            }
+            String version = questionService.getListingVersion();
+            if (notModified(webRequest, version)) {
+                return null;
+            }
+            boolean byTags = tag != null && !tag.isEmpty();
+            boolean matchAll = !"any".equalsIgnoreCase(tagMatch);
+            if (cursor != null) {
+                return cursorResponse("Questions retrieved successfully", byTags
+                    ? questionService.getQuestionsByTags(tag, matchAll, cursor, limit, sort, includeTotal)
+                    : questionService.getAllQuestions(cursor, limit, sort, includeTotal), limit);
+            }
+            if (byTags) {
+                return ResponseEntity.ok(pageResponse("Questions retrieved successfully",
+                    questionService.getQuestionsByTags(tag, matchAll, page, limit, sort), page, limit));
+            }
+            
+            String key = "questions|" + sort + "|" + page + "|" + limit + "|" + version;
+            return encoded(webRequest, responseCache.get(key, QuestionPageResponse.class,
+                () -> pageResponse("Questions retrieved successfully",
+                    questionService.getAllQuestions(page, limit, sort), page, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get trending questions (time-decayed upvotes, answers and recency),
+     * optionally within one category
+     */
+    @GetMapping("/questions/trending")
+    public ResponseEntity<?> getTrendingQuestions(
+        @RequestParam(required = false) String category,
+        @RequestParam(defaultValue = "20") int limit) {
+        
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/trending - Fetching trending questions");
+            List<QuestionSummary> questions = questionService.getTrendingQuestions(category, limit);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Questions retrieved successfully");
-            response.put("questions", questions.getContent());
-            response.put("total", questions.getTotalElements());
-            response.put("page", page);
+            response.put("message", "Trending questions retrieved successfully");
+            response.put("questions", questions);
             response.put("limit", limit);
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("success", false, "message", e.getMessage()));
@@ -57,26 +150,107 @@ public class ForumController {
     }
     
     /**
-     * Get single question by ID
+     * Get question and answer counts overall, per category, for the most used
+     * tags and optionally for one mentor
      */
-    @GetMapping("/questions/{id}")
-    public ResponseEntity<?> getQuestion(@PathVariable String id) {
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+        @RequestParam(defaultValue = "50") int tagLimit,
+        @RequestParam(required = false) String mentorId) {
+        
         try {
-            logger.info("🔵 [FORUM - JAVA] GET /api/forum/questions/{} - Fetching question", id);
-            Question question = questionService.getQuestionById(id);
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/facets - Fetching facet counts");
+            ForumFacets facets = questionService.getFacets(tagLimit, mentorId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "Question retrieved successfully");
-            response.put("question", question);
+            response.put("message", "Facet counts retrieved successfully");
+            response.put("facets", facets);
             
             return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Suggest tags starting with a prefix, most used first
+     */
+    @GetMapping("/tags/suggest")
+    public ResponseEntity<?> suggestTags(
+        @RequestParam(defaultValue = "") String prefix,
+        @RequestParam(defaultValue = "10") int limit) {
+        
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/tags/suggest - Suggesting tags for prefix: {}", prefix);
+            List<FacetCount> tags = questionService.suggestTags(prefix, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Tag suggestions retrieved successfully");
+            response.put("tags", tags);
+            response.put("limit", limit);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get single question by ID
+     */
+    @GetMapping("/questions/{id}")
+    public ResponseEntity<?> getQuestion(@PathVariable String id, ServletWebRequest webRequest) {
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/{} - Fetching question", id);
+            Question question = questionService.getQuestionById(id);
+            String version = questionService.getQuestionVersion(question);
+            if (notModified(webRequest, version)) {
+                return null;
+            }
+            
+            return encoded(webRequest, responseCache.get("question|" + version, QuestionResponse.class,
+                () -> new QuestionResponse(true, "Question retrieved successfully", question)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("success", false, "message", e.getMessage()));
         }
     }
     
+    /**
+     * Server-sent events for one question: new answers, votes, edits and
+     * deletion. Errors are raised as exceptions, since a failed subscription
+     * has no emitter to return.
+     */
+    @GetMapping("/questions/{id}/events")
+    public SseEmitter getQuestionEvents(@PathVariable String id) {
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/{}/events - Subscribing to question", id);
+            return questionService.subscribeToQuestion(id);
+        } catch (Exception e) {
+            HttpStatus status = "Question not found".equals(e.getMessage())
+                ? HttpStatus.NOT_FOUND : HttpStatus.SERVICE_UNAVAILABLE;
+            throw new ResponseStatusException(status, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Server-sent events for questions in one category: new questions,
+     * edits, votes, answer counts and deletions
+     */
+    @GetMapping("/questions/category/{category}/events")
+    public SseEmitter getCategoryEvents(@PathVariable String category) {
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/category/{}/events - Subscribing to category", category);
+            return questionService.subscribeToCategory(category);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+    
     /**
      * Create a new question (Authenticated)
      */
@@ -87,7 +261,7 @@ public class ForumController {
         Authentication authentication) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] POST /api/forum/questions - Creating new question");
+            logger.debug("🔵 [FORUM - JAVA] POST /api/forum/questions - Creating new question");
             String userId = authentication.getName();
             Question question = questionService.createQuestion(request, userId);
             
@@ -103,6 +277,34 @@ public class ForumController {
         }
     }
     
+    /**
+     * Bulk import questions from a JSON array of question objects (Authenticated)
+     */
+    @PostMapping("/questions/import")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> importQuestions(
+        InputStream body,
+        Authentication authentication) {
+        
+        try {
+            logger.debug("🔵 [FORUM - JAVA] POST /api/forum/questions/import - Importing questions");
+            String userId = authentication.getName();
+            ImportReport report = questionService.importQuestions(body, userId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", report.getError() == null);
+            response.put("message", report.getError() == null ? "Questions imported successfully" : report.getError());
+            response.put("imported", report.getImported());
+            response.put("failed", report.getFailed());
+            response.put("results", report.getResults());
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
     /**
      * Update a question (Authenticated - Author only)
      */
@@ -114,7 +316,7 @@ public class ForumController {
         Authentication authentication) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] PUT /api/forum/questions/{} - Updating question", id);
+            logger.debug("🔵 [FORUM - JAVA] PUT /api/forum/questions/{} - Updating question", id);
             String userId = authentication.getName();
             Question question = questionService.updateQuestion(id, request, userId);
             
@@ -140,7 +342,7 @@ public class ForumController {
         Authentication authentication) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] DELETE /api/forum/questions/{} - Deleting question", id);
+            logger.debug("🔵 [FORUM - JAVA] DELETE /api/forum/questions/{} - Deleting question", id);
             String userId = authentication.getName();
             questionService.deleteQuestion(id, userId);
             
@@ -166,7 +368,7 @@ public class ForumController {
         Authentication authentication) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] POST /api/forum/questions/{}/answer - Adding answer", id);
+            logger.debug("🔵 [FORUM - JAVA] POST /api/forum/questions/{}/answer - Adding answer", id);
             String userId = authentication.getName();
             Question question = questionService.addAnswer(id, request, userId);
             
@@ -182,6 +384,50 @@ public class ForumController {
         }
     }
     
+    /**
+     * Get a page of a question's answers, oldest first. Passing {@code since}
+     * (epoch millis of the last sync) returns only answers added since then.
+     */
+    @GetMapping("/questions/{id}/answers")
+    public ResponseEntity<?> getAnswers(
+        @PathVariable String id,
+        @RequestParam(defaultValue = "1") int page,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) Long since) {
+        
+        try {
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/{}/answers - Fetching answers", id);
+            if (since != null) {
+                AnswerDelta delta = questionService.getAnswersSince(id, since);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("message", "Answer changes retrieved successfully");
+                response.put("answers", delta.getAnswers());
+                response.put("syncedAt", delta.getSyncedAt());
+                
+                return ResponseEntity.ok(response);
+            }
+            Page<Answer> answers = questionService.getAnswers(id, page, limit);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Answers retrieved successfully");
+            response.put("answers", answers.getContent());
+            response.put("total", answers.getTotalElements());
+            response.put("page", page);
+            response.put("limit", limit);
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
     /**
      * Upvote a question (Authenticated)
      */
@@ -192,14 +438,14 @@ public class ForumController {
         Authentication authentication) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] POST /api/forum/questions/{}/upvote - Upvoting question", id);
+            logger.debug("🔵 [FORUM - JAVA] POST /api/forum/questions/{}/upvote - Upvoting question", id);
             String userId = authentication.getName();
-            Question question = questionService.upvoteQuestion(id, userId);
+            int upvotes = questionService.upvoteQuestion(id, userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Question upvoted successfully");
-            response.put("upvotes", question.getUpvotes());
+            response.put("upvotes", upvotes);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -215,21 +461,29 @@ public class ForumController {
     public ResponseEntity<?> getQuestionsByCategory(
         @PathVariable String category,
         @RequestParam(defaultValue = "1") int page,
-        @RequestParam(defaultValue = "10") int limit) {
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean includeTotal,
+        ServletWebRequest webRequest) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] GET /api/forum/questions/category/{} - Fetching questions by category", category);
-            Page<Question> questions = questionService.getQuestionsByCategory(category, page, limit);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Questions retrieved successfully");
-            response.put("questions", questions.getContent());
-            response.put("total", questions.getTotalElements());
-            response.put("page", page);
-            response.put("limit", limit);
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/category/{} - Fetching questions by category", category);
+            if (cursor != null) {
+                return cursorResponse("Questions retrieved successfully",
+                    questionService.getQuestionsByCategory(category, cursor, limit, includeTotal), limit);
+            }
+            String version = questionService.getListingVersion();
+            if (notModified(webRequest, version)) {
+                return null;
+            }
             
-            return ResponseEntity.ok(response);
+            String key = "category|" + category.toLowerCase() + "|" + page + "|" + limit + "|" + version;
+            return encoded(webRequest, responseCache.get(key, QuestionPageResponse.class,
+                () -> pageResponse("Questions retrieved successfully",
+                    questionService.getQuestionsByCategory(category, page, limit), page, limit)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("success", false, "message", e.getMessage()));
@@ -244,27 +498,51 @@ public class ForumController {
     public ResponseEntity<?> getQuestionsByMentor(
         @PathVariable String mentorId,
         @RequestParam(defaultValue = "1") int page,
-        @RequestParam(defaultValue = "10") int limit) {
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] GET /api/forum/mentor/{}/questions - Fetching mentor's questions", mentorId);
-            Page<Question> questions = questionService.getQuestionsByMentor(mentorId, page, limit);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Questions retrieved successfully");
-            response.put("questions", questions.getContent());
-            response.put("total", questions.getTotalElements());
-            response.put("page", page);
-            response.put("limit", limit);
-            
-            return ResponseEntity.ok(response);
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/mentor/{}/questions - Fetching mentor's questions", mentorId);
+            if (cursor != null) {
+                return cursorResponse("Questions retrieved successfully",
+                    questionService.getQuestionsByMentor(mentorId, cursor, limit, includeTotal), limit);
+            }
+            Page<QuestionSummary> questions = questionService.getQuestionsByMentor(mentorId, page, limit);
+            return ResponseEntity.ok(pageResponse("Questions retrieved successfully", questions, page, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("success", false, "message", e.getMessage()));
         }
     }
     
+    /**
+     * Export questions as newline-delimited JSON, streamed from a database
+     * cursor, optionally filtered by category and/or author
+     */
+    @GetMapping("/questions/export")
+    @PreAuthorize("isAuthenticated()")
+    public void exportQuestions(
+        @RequestParam(required = false) String category,
+        @RequestParam(required = false) String authorId,
+        HttpServletResponse response) {
+        
+        logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/export - Exporting questions");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"questions.ndjson\"");
+        
+        try {
+            long count = questionService.exportQuestions(category, authorId, response.getOutputStream());
+            logger.debug("Exported {} questions", count);
+        } catch (IOException e) {
+            logger.warn("Question export aborted: {}", e.getMessage());
+        }
+    }
+    
     /**
      * Search questions
      */
@@ -273,24 +551,77 @@ public class ForumController {
         @RequestParam String q,
         @RequestParam(required = false) String category,
         @RequestParam(defaultValue = "1") int page,
-        @RequestParam(defaultValue = "10") int limit) {
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean includeTotal) {
         
         try {
-            logger.info("🔵 [FORUM - JAVA] GET /api/forum/questions/search - Searching questions with query: {}", q);
-            Page<Question> questions = questionService.searchQuestions(q, category, page, limit);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Search results retrieved successfully");
-            response.put("questions", questions.getContent());
-            response.put("total", questions.getTotalElements());
-            response.put("page", page);
-            response.put("limit", limit);
-            
-            return ResponseEntity.ok(response);
+            logger.debug("🔵 [FORUM - JAVA] GET /api/forum/questions/search - Searching questions with query: {}", q);
+            if (cursor != null) {
+                return cursorResponse("Search results retrieved successfully",
+                    questionService.searchQuestions(q, category, cursor, limit, includeTotal), limit);
+            }
+            Page<QuestionSummary> questions = questionService.searchQuestions(q, category, page, limit);
+            return ResponseEntity.ok(pageResponse("Search results retrieved successfully", questions, page, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("success", false, "message", e.getMessage()));
         }
     }
+    
+    /**
+     * Conditional GET: true when the client's copy (If-None-Match) is current,
+     * in which case the 304 is already set up. Otherwise the response gets
+     * the ETag and is marked for revalidation on every use.
+     */
+    private static boolean notModified(ServletWebRequest webRequest, String version) {
+        if (webRequest.checkNotModified(version)) {
+            return true;
+        }
+        HttpServletResponse response = webRequest.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return false;
+    }
+    
+    /**
+     * Response body for a keyset-paginated listing
+     */
+    private ResponseEntity<?> cursorResponse(String message, CursorPage<QuestionSummary> slice, int limit) {
+        return ResponseEntity.ok(new QuestionSliceResponse(true, message, slice.getItems(), slice.getNextCursor(),
+            slice.getNextCursor() != null, limit, slice.getTotal()));
+    }
+    
+    /**
+     * Response body for one offset page of a listing
+     */
+    private static QuestionPageResponse pageResponse(String message, Page<QuestionSummary> questions,
+                                                     int page, int limit) {
+        return new QuestionPageResponse(true, message, questions.getContent(), questions.getTotalElements(),
+            page, limit);
+    }
+    
+    /**
+     * Write an already-encoded body, gzip-compressed when it has a gzip
+     * encoding and the client accepts it. The body is also kept as the
+     * request's fallback for load shedding.
+     */
+    private ResponseEntity<byte[]> encoded(ServletWebRequest webRequest, EncodedResponse body) {
+        responseCache.rememberLatest(EncodedResponseCache.requestKey(webRequest.getRequest()), body);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (body.getGzip() == null) {
+            return response.body(body.getJson());
+        }
+        
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzipFor(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+        }
+        return response.body(body.getJson());
+    }
 }
@@ -0,0 +1,22 @@
+package com.mentorlink.dto;
+
+import com.mentorlink.entity.Answer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Answers added to a question since a client's last sync, oldest first.
+ * {@code syncedAt} is the {@code since} to send next time.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnswerDelta {
+    
+    private List<Answer> answers;
+    
+    private long syncedAt;
+}
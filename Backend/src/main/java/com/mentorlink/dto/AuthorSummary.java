@@ -0,0 +1,38 @@
+package com.mentorlink.dto;
+
+import com.mentorlink.entity.AuthorSnapshot;
+import com.mentorlink.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * Display fields of a question or answer author
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorSummary {
+    
+    private String id;
+    
+    private String name;
+    
+    private String profilePicture;
+    
+    private String role;
+    
+    public static AuthorSummary from(User user) {
+        return new AuthorSummary(
+            user.getId(),
+            user.getName(),
+            user.getProfilePicture(),
+            Objects.toString(user.getRole(), null));
+    }
+    
+    public static AuthorSummary from(AuthorSnapshot snapshot) {
+        return new AuthorSummary(snapshot.getId(), snapshot.getName(), snapshot.getProfilePicture(), snapshot.getRole());
+    }
+}
@@ -0,0 +1,23 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated listing. {@code nextCursor} is null on the
+ * last slice; {@code total} is only filled in when the caller asked for it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> items;
+    
+    private String nextCursor;
+    
+    private Long total;
+}
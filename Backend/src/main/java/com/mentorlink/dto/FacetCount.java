@@ -0,0 +1,20 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of questions and answers for one category, tag or author
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCount {
+    
+    private String value;
+    
+    private long questions;
+    
+    private long answers;
+}
@@ -0,0 +1,31 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Question and answer counts of the whole forum, per category and for the
+ * most used tags, plus one mentor's counts when asked for
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ForumFacets {
+    
+    private long totalQuestions;
+    
+    private long totalAnswers;
+    
+    private List<FacetCount> categories;
+    
+    private List<FacetCount> tags;
+    
+    private FacetCount mentor;
+    
+    /** When the counts were last recomputed from the database */
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,37 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One question in a bulk import. {@code authorId} and {@code createdAt} let
+ * migrated content keep its original author and date; they default to the
+ * importing user and the import time.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportQuestionRequest {
+    
+    @NotBlank(message = "Title is required")
+    @Size(max = 200, message = "Title must be less than 200 characters")
+    private String title;
+    
+    @NotBlank(message = "Content is required")
+    private String content;
+    
+    @NotBlank(message = "Category is required")
+    private String category;
+    
+    private List<String> tags;
+    
+    private String authorId;
+    
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: one result per submitted item, in submission
+ * order. {@code error} is set when the import stopped early (for example on
+ * malformed JSON); items before that point have already been written.
+ */
+@Data
+@NoArgsConstructor
+public class ImportReport {
+    
+    private int imported;
+    
+    private int failed;
+    
+    private List<ItemResult> results = new ArrayList<>();
+    
+    private String error;
+    
+    public void succeeded(int index, String id) {
+        results.add(new ItemResult(index, id, null));
+        imported++;
+    }
+    
+    public void failed(int index, String message) {
+        results.add(new ItemResult(index, null, message));
+        failed++;
+    }
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        
+        private int index;
+        
+        /** Id of the created question, null if the item failed */
+        private String id;
+        
+        private String error;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mentorlink.dto;
+
+import lombok.Getter;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Opaque keyset pagination cursor: the sort field, the last returned value of
+ * that field and the last returned id. Ranked search results, which have no
+ * stable sort key, use a plain offset under the pseudo-field "rank".
+ */
+@Getter
+public final class QuestionCursor {
+    
+    public static final String RANK = "rank";
+    
+    private static final Set<String> SORT_FIELDS = Set.of("createdAt", "updatedAt", "upvotes");
+    private static final String SEPARATOR = "|";
+    
+    private final String field;
+    private final Object value;
+    private final String id;
+    
+    private QuestionCursor(String field, Object value, String id) {
+        this.field = field;
+        this.value = value;
+        this.id = id;
+    }
+    
+    public static boolean isSortable(String field) {
+        return SORT_FIELDS.contains(field);
+    }
+    
+    /**
+     * Cursor positioned after the given summary in a listing sorted by field
+     */
+    public static QuestionCursor after(String field, QuestionSummary last) {
+        Object value;
+        switch (field) {
+            case "createdAt":
+                value = last.getCreatedAt();
+                break;
+            case "updatedAt":
+                value = last.getUpdatedAt();
+                break;
+            case "upvotes":
+                value = last.getUpvotes() != null ? last.getUpvotes().longValue() : null;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported cursor field: " + field);
+        }
+        return new QuestionCursor(field, value, last.getId());
+    }
+    
+    public static QuestionCursor offset(int offset) {
+        return new QuestionCursor(RANK, (long) offset, null);
+    }
+    
+    public int getOffset() {
+        return ((Long) value).intValue();
+    }
+    
+    public String encode() {
+        String encodedValue;
+        if (value == null) {
+            encodedValue = "";
+        } else if (value instanceof LocalDateTime) {
+            encodedValue = "t" + value;
+        } else {
+            encodedValue = "n" + value;
+        }
+        String raw = field + SEPARATOR + encodedValue + SEPARATOR + (id != null ? id : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor, checking it was issued for the same sort field and
+     * that its value and id are well formed
+     */
+    public static QuestionCursor decode(String token, String expectedField) {
+        QuestionCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !parts[0].equals(expectedField)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            
+            Object value = null;
+            if (!parts[1].isEmpty()) {
+                String encoded = parts[1].substring(1);
+                value = parts[1].charAt(0) == 't' ? LocalDateTime.parse(encoded) : Long.parseLong(encoded);
+            }
+            cursor = new QuestionCursor(parts[0], value, parts[2].isEmpty() ? null : parts[2]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!cursor.isWellFormed()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return cursor;
+    }
+    
+    private boolean isWellFormed() {
+        if (RANK.equals(field)) {
+            return value instanceof Long && (Long) value >= 0 && (Long) value <= Integer.MAX_VALUE;
+        }
+        boolean valueMatches = "upvotes".equals(field)
+            ? value == null || value instanceof Long
+            : value == null || value instanceof LocalDateTime;
+        return valueMatches && id != null && ObjectId.isValid(id);
+    }
+}
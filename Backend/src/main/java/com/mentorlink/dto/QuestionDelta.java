@@ -0,0 +1,31 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Questions changed since a client's last sync, oldest change first.
+ * {@code nextCursor} continues the same delta when it did not fit in one
+ * response; once it is null, {@code syncedAt} is the {@code since} to send
+ * next time. {@code resync} means the last sync is too old to serve as a
+ * delta and the client has to reload the full listing.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionDelta {
+    
+    private List<QuestionSummary> questions;
+    
+    /** Ids of questions deleted since the last sync (first slice only) */
+    private List<String> deleted;
+    
+    private String nextCursor;
+    
+    private long syncedAt;
+    
+    private boolean resync;
+}
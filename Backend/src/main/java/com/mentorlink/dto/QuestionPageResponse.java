@@ -0,0 +1,28 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response envelope for one offset page of a question listing
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionPageResponse {
+    
+    private boolean success;
+    
+    private String message;
+    
+    private List<QuestionSummary> questions;
+    
+    private long total;
+    
+    private int page;
+    
+    private int limit;
+}
@@ -0,0 +1,21 @@
+package com.mentorlink.dto;
+
+import com.mentorlink.entity.Question;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response envelope for a single question
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionResponse {
+    
+    private boolean success;
+    
+    private String message;
+    
+    private Question question;
+}
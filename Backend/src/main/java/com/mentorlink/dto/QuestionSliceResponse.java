@@ -0,0 +1,33 @@
+package com.mentorlink.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response envelope for one keyset slice of a question listing
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionSliceResponse {
+    
+    private boolean success;
+    
+    private String message;
+    
+    private List<QuestionSummary> questions;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+    
+    private int limit;
+    
+    /** Only present when the total was asked for */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+}
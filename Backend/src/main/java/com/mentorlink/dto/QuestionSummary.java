@@ -0,0 +1,52 @@
+package com.mentorlink.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * List/search view of a question: no full content, no answers, and only the
+ * author's display fields. Full questions come from GET /questions/{id}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionSummary {
+    
+    public static final int SNIPPET_LENGTH = 200;
+    
+    private String id;
+    
+    private String title;
+    
+    private String snippet;
+    
+    private String category;
+    
+    private List<String> tags;
+    
+    private Integer upvotes;
+    
+    private Integer answerCount;
+    
+    private String authorId;
+    
+    private AuthorSummary author;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+    
+    /**
+     * First {@link #SNIPPET_LENGTH} code points of the content
+     */
+    public static String snippetOf(String content) {
+        if (content == null || content.codePointCount(0, content.length()) <= SNIPPET_LENGTH) {
+            return content;
+        }
+        return content.substring(0, content.offsetByCodePoints(0, SNIPPET_LENGTH));
+    }
+}
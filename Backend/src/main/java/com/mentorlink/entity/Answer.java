@@ -1,16 +1,30 @@
 package com.mentorlink.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
+/**
+ * Answers are embedded in their question by default. With
+ * forum.answers.storage=collection they live in their own collection instead,
+ * linked by questionId.
+ */
+@Document(collection = "answers")
+@CompoundIndexes({
+    @CompoundIndex(name = "questionId_createdAt_idx", def = "{'questionId': 1, 'createdAt': 1}"),
+    @CompoundIndex(name = "author_idx", def = "{'author.$id': 1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -19,12 +33,19 @@ public class Answer {
     @Id
     private String id;
     
+    /** Owning question; only set when stored in the answers collection */
+    private String questionId;
+    
     @NotBlank(message = "Answer content is required")
     private String content;
     
-    @DBRef
+    @DBRef(lazy = true)
     private User author;
     
+    /** Author display fields, when author snapshots are enabled */
+    @JsonIgnore
+    private AuthorSnapshot authorSnapshot;
+    
     private Integer upvotes = 0;
     
     @CreatedDate
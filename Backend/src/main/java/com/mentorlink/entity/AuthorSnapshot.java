@@ -0,0 +1,49 @@
+package com.mentorlink.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Objects;
+
+/**
+ * Author display fields stored inline on questions and answers
+ * (forum.authors.snapshot.enabled), so reads need no users lookup. Kept in
+ * sync with the user profile by AuthorSnapshotFanout.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuthorSnapshot {
+    
+    /** Kept as a plain "id" string; an unannotated id would map to an ObjectId _id */
+    @Field("id")
+    private String id;
+    
+    private String name;
+    
+    private String profilePicture;
+    
+    private String role;
+    
+    public static AuthorSnapshot from(User user) {
+        return new AuthorSnapshot(
+            user.getId(),
+            user.getName(),
+            user.getProfilePicture(),
+            Objects.toString(user.getRole(), null));
+    }
+    
+    /**
+     * Stand-in author for responses, carrying the display fields the
+     * clients render
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setProfilePicture(profilePicture);
+        return user;
+    }
+}
@@ -1,11 +1,15 @@
 package com.mentorlink.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,6 +20,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "questions")
+@CompoundIndexes({
+    @CompoundIndex(name = "category_createdAt_idx", def = "{'category': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "createdAt_id_idx", def = "{'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "upvotes_id_idx", def = "{'upvotes': -1, '_id': -1}"),
+    @CompoundIndex(name = "updatedAt_id_idx", def = "{'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "author_createdAt_idx", def = "{'author.$id': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "answers_author_idx", def = "{'answers.author.$id': 1}"),
+    @CompoundIndex(name = "tags_createdAt_idx", def = "{'tags': 1, 'createdAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "tags_updatedAt_idx", def = "{'tags': 1, 'updatedAt': -1, '_id': -1}"),
+    @CompoundIndex(name = "tags_upvotes_idx", def = "{'tags': 1, 'upvotes': -1, '_id': -1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -31,13 +46,22 @@ public class Question {
     @NotBlank(message = "Content is required")
     private String content;
     
+    /** Start of content, kept in sync on write for list projections */
+    private String snippet;
+    
     private String category; // engineering, data-science, business, product, general
     
-    @DBRef
+    @DBRef(lazy = true)
     private User author;
     
+    /** Author display fields, when author snapshots are enabled */
+    @JsonIgnore
+    private AuthorSnapshot authorSnapshot;
+    
     private List<Answer> answers = new ArrayList<>();
     
+    private Integer answerCount = 0;
+    
     private Integer upvotes = 0;
     
     private List<String> tags = new ArrayList<>();
@@ -47,4 +71,11 @@ public class Question {
     
     @LastModifiedDate
     private LocalDateTime updatedAt;
+    
+    /**
+     * Revision of the document: every write increments it with $inc. Guards
+     * edits against concurrent writes and orders cache invalidations.
+     */
+    @Version
+    private Long version;
 }
@@ -0,0 +1,31 @@
+package com.mentorlink.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted question, so delta-sync clients learn about deletes.
+ * Tombstones expire after {@link #RETENTION_DAYS}; a client whose last sync
+ * is older than that has to reload in full.
+ */
+@Document(collection = "question_tombstones")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionTombstone {
+    
+    public static final int RETENTION_DAYS = 30;
+    
+    /** Id of the deleted question */
+    @Id
+    private String id;
+    
+    @Indexed(name = "deletedAt_ttl_idx", expireAfterSeconds = RETENTION_DAYS * 24 * 60 * 60)
+    private LocalDateTime deletedAt;
+}
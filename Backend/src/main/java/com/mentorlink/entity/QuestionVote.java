@@ -0,0 +1,31 @@
+package com.mentorlink.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's upvote on a question. The unique (questionId, userId) index makes
+ * voting idempotent: a second vote from the same user fails the insert.
+ */
+@Document(collection = "question_votes")
+@CompoundIndex(name = "question_user_idx", def = "{'questionId': 1, 'userId': 1}", unique = true)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionVote {
+    
+    @Id
+    private String id;
+    
+    private String questionId;
+    
+    private String userId;
+    
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,60 @@
+package com.mentorlink.event;
+
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by QuestionService after every successful question mutation so
+ * that in-process read models (search index, caches, ...) can stay in sync.
+ */
+@Getter
+@AllArgsConstructor
+public class QuestionChangedEvent {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        ANSWER_ADDED,
+        UPVOTED
+    }
+    
+    private final Type type;
+    
+    private final String questionId;
+    
+    /**
+     * Question after the change, null for DELETED and UPVOTED. For UPDATED
+     * only the question's own fields are reliable: edits do not load the
+     * answers, so consumers must keep whatever they hold for them.
+     */
+    private final Question question;
+    
+    /** The new answer for ANSWER_ADDED, null otherwise */
+    private final Answer answer;
+    
+    /** Number of votes added for UPVOTED, 0 otherwise */
+    private final int upvoteDelta;
+    
+    public static QuestionChangedEvent created(Question question) {
+        return new QuestionChangedEvent(Type.CREATED, question.getId(), question, null, 0);
+    }
+    
+    public static QuestionChangedEvent updated(Question question) {
+        return new QuestionChangedEvent(Type.UPDATED, question.getId(), question, null, 0);
+    }
+    
+    public static QuestionChangedEvent deleted(String questionId) {
+        return new QuestionChangedEvent(Type.DELETED, questionId, null, null, 0);
+    }
+    
+    public static QuestionChangedEvent answerAdded(Question question, Answer answer) {
+        return new QuestionChangedEvent(Type.ANSWER_ADDED, question.getId(), question, answer, 0);
+    }
+    
+    public static QuestionChangedEvent upvoted(String questionId, int delta) {
+        return new QuestionChangedEvent(Type.UPVOTED, questionId, null, null, delta);
+    }
+}
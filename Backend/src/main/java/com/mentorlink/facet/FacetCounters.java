@@ -0,0 +1,324 @@
+package com.mentorlink.facet;
+
+import com.mentorlink.dto.FacetCount;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mentorlink.service.AuthorLoader;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory question and answer counts per category, tag and author, so
+ * listings can report totals and the UI can show facet counts without a
+ * count query or aggregation per request.
+ *
+ * QuestionService adjusts the counts as it accepts each mutation. A
+ * periodic reconcile recomputes them from Mongo, one aggregation per facet,
+ * and swaps them in. That corrects drift from writes on other nodes,
+ * mutations racing the previous reconcile and answer authors of deleted
+ * questions that were not loaded. Until the first reconcile completes the
+ * counters are not ready and callers fall back to counting.
+ *
+ * For categories and tags, answers are the answers to questions with that
+ * value; for authors, the answers they wrote.
+ */
+@Component
+public class FacetCounters {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FacetCounters.class);
+    
+    public enum Facet {
+        CATEGORY,
+        TAG,
+        AUTHOR
+    }
+    
+    private static final Comparator<FacetCount> BY_QUESTIONS = Comparator
+        .comparingLong(FacetCount::getQuestions).reversed()
+        .thenComparing(FacetCount::getValue);
+    
+    private final MongoTemplate mongoTemplate;
+    private final boolean answersInCollection;
+    
+    private volatile Counts counts = new Counts();
+    private volatile LocalDateTime reconciledAt;
+    
+    public FacetCounters(MongoTemplate mongoTemplate,
+                         @Value("${forum.answers.storage:embedded}") String answerStorage) {
+        this.mongoTemplate = mongoTemplate;
+        this.answersInCollection = "collection".equalsIgnoreCase(answerStorage);
+    }
+    
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+    
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+    
+    /**
+     * Questions and answers in the whole forum
+     */
+    public FacetCount total() {
+        return counts.total.toFacetCount(null);
+    }
+    
+    /**
+     * Counts of one category, tag or author; zero when it has none
+     */
+    public FacetCount count(Facet facet, String value) {
+        Counter counter = value != null ? counts.of(facet).get(value) : null;
+        return counter != null ? counter.toFacetCount(value) : new FacetCount(value, 0, 0);
+    }
+    
+    /**
+     * Number of questions in the whole forum, or null when not ready
+     */
+    public Long questionCount() {
+        return isReady() ? counts.total.questions.get() : null;
+    }
+    
+    /**
+     * Number of questions with a category, tag or author, or null when not ready
+     */
+    public Long questionCount(Facet facet, String value) {
+        return isReady() ? count(facet, value).getQuestions() : null;
+    }
+    
+    /**
+     * Up to limit values of a facet, most questions first
+     */
+    public List<FacetCount> top(Facet facet, int limit) {
+        List<FacetCount> values = new ArrayList<>();
+        counts.of(facet).forEach((value, counter) -> {
+            if (counter.questions.get() > 0 || counter.answers.get() > 0) {
+                values.add(counter.toFacetCount(value));
+            }
+        });
+        values.sort(BY_QUESTIONS);
+        return values.size() <= limit ? values : new ArrayList<>(values.subList(0, limit));
+    }
+    
+    /**
+     * Up to limit tags starting with prefix, most questions first. Tags are
+     * kept sorted, so only the tags sharing the prefix are looked at.
+     */
+    public List<FacetCount> suggestTags(String prefix, int limit) {
+        NavigableMap<String, Counter> matches = counts.tags.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        PriorityQueue<FacetCount> best = new PriorityQueue<>(BY_QUESTIONS.reversed());
+        matches.forEach((tag, counter) -> {
+            if (counter.questions.get() > 0) {
+                best.add(counter.toFacetCount(tag));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        });
+        List<FacetCount> tags = new ArrayList<>(best);
+        tags.sort(BY_QUESTIONS);
+        return tags;
+    }
+    
+    public void questionCreated(Question question) {
+        adjust(question, 1);
+    }
+    
+    /**
+     * Remove a question and its answers from the counts. Answers kept in
+     * their own collection are not loaded with the question, so their
+     * authors' counts are left to the next reconcile.
+     */
+    public void questionDeleted(Question question) {
+        adjust(question, -1);
+        if (question.getAnswers() != null) {
+            Counts current = counts;
+            for (Answer answer : question.getAnswers()) {
+                add(current, Facet.AUTHOR, AuthorLoader.idOf(answer.getAuthor()), 0, -1);
+            }
+        }
+    }
+    
+    /**
+     * Move a question, with its answers, from one category to another
+     */
+    public void categoryChanged(String from, String to, Integer answerCount) {
+        if (from != null && from.equals(to)) {
+            return;
+        }
+        Counts current = counts;
+        long answers = answerCount != null ? answerCount : 0;
+        add(current, Facet.CATEGORY, from, -1, -answers);
+        add(current, Facet.CATEGORY, to, 1, answers);
+    }
+    
+    public void answerAdded(Question question, Answer answer) {
+        Counts current = counts;
+        current.total.add(0, 1);
+        add(current, Facet.CATEGORY, question.getCategory(), 0, 1);
+        if (question.getTags() != null) {
+            for (String tag : question.getTags()) {
+                add(current, Facet.TAG, tag, 0, 1);
+            }
+        }
+        add(current, Facet.AUTHOR, AuthorLoader.idOf(answer.getAuthor()), 0, 1);
+    }
+    
+    private void adjust(Question question, int sign) {
+        Counts current = counts;
+        long answers = question.getAnswerCount() != null ? question.getAnswerCount() : 0;
+        current.total.add(sign, sign * answers);
+        add(current, Facet.CATEGORY, question.getCategory(), sign, sign * answers);
+        if (question.getTags() != null) {
+            for (String tag : question.getTags()) {
+                add(current, Facet.TAG, tag, sign, sign * answers);
+            }
+        }
+        add(current, Facet.AUTHOR, AuthorLoader.idOf(question.getAuthor()), sign, 0);
+    }
+    
+    private static void add(Counts counts, Facet facet, String value, long questions, long answers) {
+        if (value != null) {
+            counts.of(facet).computeIfAbsent(value, v -> new Counter()).add(questions, answers);
+        }
+    }
+    
+    /**
+     * Compute the counts in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        Thread reconciler = new Thread(this::reconcile, "facet-counters-reconcile");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+    
+    /**
+     * Recompute every count from the database and swap the result in.
+     * Mutations accepted while the aggregations run may be missed or counted
+     * twice; the next reconcile settles them.
+     */
+    @Scheduled(fixedDelayString = "${forum.facets.reconcile-interval-ms:600000}",
+               initialDelayString = "${forum.facets.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            Counts fresh = new Counts();
+            String questions = mongoTemplate.getCollectionName(Question.class);
+            
+            aggregate(questions, List.of(questionGroup("$category", true)), fresh.of(Facet.CATEGORY), fresh.total);
+            aggregate(questions, List.of(new Document("$unwind", "$tags"), questionGroup("$tags", true)),
+                fresh.of(Facet.TAG), null);
+            aggregate(questions, List.of(questionGroup(refId("$author"), false)), fresh.of(Facet.AUTHOR), null);
+            if (answersInCollection) {
+                aggregate(mongoTemplate.getCollectionName(Answer.class),
+                    List.of(answerGroup(refId("$author"))), fresh.of(Facet.AUTHOR), null);
+            } else {
+                aggregate(questions, List.of(new Document("$unwind", "$answers"), answerGroup(refId("$answers.author"))),
+                    fresh.of(Facet.AUTHOR), null);
+            }
+            
+            counts = fresh;
+            reconciledAt = LocalDateTime.now();
+            logger.info("Facet counters reconciled: {} questions, {} categories, {} tags, {} authors in {} ms",
+                fresh.total.questions.get(), fresh.of(Facet.CATEGORY).size(), fresh.of(Facet.TAG).size(),
+                fresh.of(Facet.AUTHOR).size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to reconcile facet counters", e);
+        }
+    }
+    
+    private void aggregate(String collection, List<Document> pipeline, Map<String, Counter> into, Counter total) {
+        for (Document row : mongoTemplate.getCollection(collection).aggregate(pipeline).allowDiskUse(true)) {
+            long questions = longValue(row.get("questions"));
+            long answers = longValue(row.get("answers"));
+            if (total != null) {
+                total.add(questions, answers);
+            }
+            Object value = row.get("_id");
+            if (value != null) {
+                into.computeIfAbsent(value.toString(), v -> new Counter()).add(questions, answers);
+            }
+        }
+    }
+    
+    private static Document questionGroup(Object key, boolean withAnswers) {
+        Document group = new Document("_id", key).append("questions", new Document("$sum", 1));
+        if (withAnswers) {
+            group.append("answers", new Document("$sum", new Document("$ifNull", List.of("$answerCount", 0))));
+        }
+        return new Document("$group", group);
+    }
+    
+    private static Document answerGroup(Object key) {
+        return new Document("$group", new Document("_id", key).append("answers", new Document("$sum", 1)));
+    }
+    
+    /**
+     * The id of a DBRef field. Aggregation field paths cannot address "$id",
+     * so the reference is taken apart with $objectToArray; $id always
+     * follows $ref.
+     */
+    private static Document refId(String field) {
+        Document values = new Document("$map", new Document("input", new Document("$objectToArray", field))
+            .append("in", "$$this.v"));
+        return new Document("$arrayElemAt", List.of(values, 1));
+    }
+    
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+    
+    private static final class Counts {
+        private final Counter total = new Counter();
+        private final ConcurrentSkipListMap<String, Counter> tags = new ConcurrentSkipListMap<>();
+        private final Map<Facet, Map<String, Counter>> byFacet = new EnumMap<>(Facet.class);
+        
+        private Counts() {
+            byFacet.put(Facet.CATEGORY, new ConcurrentHashMap<>());
+            byFacet.put(Facet.TAG, tags);
+            byFacet.put(Facet.AUTHOR, new ConcurrentHashMap<>());
+        }
+        
+        private Map<String, Counter> of(Facet facet) {
+            return byFacet.get(facet);
+        }
+    }
+    
+    private static final class Counter {
+        private final AtomicLong questions = new AtomicLong();
+        private final AtomicLong answers = new AtomicLong();
+        
+        private void add(long questionDelta, long answerDelta) {
+            if (questionDelta != 0) {
+                questions.addAndGet(questionDelta);
+            }
+            if (answerDelta != 0) {
+                answers.addAndGet(answerDelta);
+            }
+        }
+        
+        private FacetCount toFacetCount(String value) {
+            return new FacetCount(value, questions.get(), answers.get());
+        }
+    }
+}
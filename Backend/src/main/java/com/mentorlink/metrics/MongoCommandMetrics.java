@@ -0,0 +1,157 @@
+package com.mentorlink.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mongo driver listener that counts round-trips (and user lookups, which is
+ * how author DBRefs get resolved) against the current request, and samples
+ * slow commands. A command slower than the threshold increments
+ * forum.mongo.slow.commands and is logged with its shape (field names with
+ * values replaced by "?"), at most once per shape per log interval.
+ */
+public class MongoCommandMetrics implements CommandListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoCommandMetrics.class);
+    
+    private static final String USERS_COLLECTION = "users";
+    private static final int MAX_SHAPE_DEPTH = 4;
+    private static final List<String> SHAPE_KEYS = List.of(
+        "filter", "query", "q", "sort", "projection", "hint", "pipeline", "updates", "deletes");
+    
+    private final MeterRegistry registry;
+    private final long slowThresholdMs;
+    private final long logIntervalMs;
+    
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastLogged = new ConcurrentHashMap<>();
+    
+    public MongoCommandMetrics(MeterRegistry registry, long slowThresholdMs, long logIntervalMs) {
+        this.registry = registry;
+        this.slowThresholdMs = slowThresholdMs;
+        this.logIntervalMs = logIntervalMs;
+    }
+    
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+        RequestMetrics request = RequestMetrics.current();
+        if (request != null) {
+            request.mongoCommand(USERS_COLLECTION.equals(collection));
+        }
+        
+        // The command document is only valid during this callback, so the
+        // shape is taken now; it is cheap next to the round-trip itself
+        inFlight.put(event.getRequestId(),
+            new Started(event.getCommandName(), collection,
+                shapeOf(event.getCommandName(), collection, event.getCommand())));
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        long elapsedMs = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        if (started == null || elapsedMs < slowThresholdMs) {
+            return;
+        }
+        
+        Counter.builder("forum.mongo.slow.commands")
+            .tag("command", started.commandName)
+            .tag("collection", started.collection != null ? started.collection : "none")
+            .register(registry)
+            .increment();
+        
+        long now = System.currentTimeMillis();
+        Long previous = lastLogged.get(started.shape);
+        if (previous == null || now - previous >= logIntervalMs) {
+            lastLogged.put(started.shape, now);
+            logger.warn("Slow Mongo command ({} ms): {}", elapsedMs, started.shape);
+        }
+    }
+    
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        inFlight.remove(event.getRequestId());
+    }
+    
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = command.get(commandName);
+        return target != null && target.isString() ? target.asString().getValue() : null;
+    }
+    
+    /**
+     * Command name, collection and the parts that decide how it executes
+     * (filter, sort, pipeline, ...), with literal values masked
+     */
+    static String shapeOf(String commandName, String collection, BsonDocument command) {
+        StringBuilder shape = new StringBuilder(commandName);
+        if (collection != null) {
+            shape.append(' ').append(collection);
+        }
+        for (String key : SHAPE_KEYS) {
+            BsonValue value = command.get(key);
+            if (value != null) {
+                shape.append(' ').append(key).append('=');
+                appendShape(shape, value, 0);
+            }
+        }
+        return shape.toString();
+    }
+    
+    private static void appendShape(StringBuilder shape, BsonValue value, int depth) {
+        if (depth >= MAX_SHAPE_DEPTH) {
+            shape.append("...");
+        } else if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : document.entrySet()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                first = false;
+                shape.append(entry.getKey()).append(": ");
+                appendShape(shape, entry.getValue(), depth + 1);
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            shape.append('[');
+            if (!array.isEmpty()) {
+                appendShape(shape, array.get(0), depth + 1);
+                if (array.size() > 1) {
+                    shape.append(", ...");
+                }
+            }
+            shape.append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+    
+    private static final class Started {
+        private final String commandName;
+        private final String collection;
+        private final String shape;
+        
+        private Started(String commandName, String collection, String shape) {
+            this.commandName = commandName;
+            this.collection = collection;
+            this.shape = shape;
+        }
+    }
+}
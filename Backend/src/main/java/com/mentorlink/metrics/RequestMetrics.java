@@ -0,0 +1,49 @@
+package com.mentorlink.metrics;
+
+/**
+ * Per-request counters, bound to the request thread by
+ * {@link RequestMetricsFilter} and incremented by {@link MongoCommandMetrics}
+ * (the synchronous Mongo driver reports commands on the calling thread).
+ */
+public final class RequestMetrics {
+    
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+    
+    private int mongoCommands;
+    private int dbRefResolutions;
+    
+    private RequestMetrics() {
+    }
+    
+    static RequestMetrics start() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+    
+    static void end() {
+        CURRENT.remove();
+    }
+    
+    /**
+     * Counters of the request running on this thread, or null outside a request
+     */
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+    
+    void mongoCommand(boolean userLookup) {
+        mongoCommands++;
+        if (userLookup) {
+            dbRefResolutions++;
+        }
+    }
+    
+    int getMongoCommands() {
+        return mongoCommands;
+    }
+    
+    int getDbRefResolutions() {
+        return dbRefResolutions;
+    }
+}
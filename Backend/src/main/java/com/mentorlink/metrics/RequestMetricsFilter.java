@@ -0,0 +1,150 @@
+package com.mentorlink.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Records, per forum endpoint (URI template), the distribution of Mongo
+ * round-trips, author DBRef resolutions and response body bytes per request:
+ * forum.request.mongo.commands, forum.request.dbref.resolutions and
+ * forum.response.size. Request latency is covered by the timers on the
+ * controller and service.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    
+    private final MeterRegistry registry;
+    
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        
+        RequestMetrics metrics = RequestMetrics.start();
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            chain.doFilter(request, counting);
+        } finally {
+            RequestMetrics.end();
+            String uri = uriOf(request);
+            record("forum.request.mongo.commands", null, uri, metrics.getMongoCommands());
+            record("forum.request.dbref.resolutions", null, uri, metrics.getDbRefResolutions());
+            record("forum.response.size", "bytes", uri, counting.bytesWritten());
+        }
+    }
+    
+    private void record(String name, String baseUnit, String uri, long amount) {
+        DistributionSummary.builder(name)
+            .baseUnit(baseUnit)
+            .tag("uri", uri)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(amount);
+    }
+    
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+    
+    /**
+     * Response wrapper that counts the body bytes written through it
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        
+        private CountingOutputStream outputStream;
+        private PrintWriter writer;
+        
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+        
+        private long bytesWritten() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return outputStream != null ? outputStream.count : 0;
+        }
+    }
+    
+    private static final class CountingOutputStream extends ServletOutputStream {
+        
+        private final ServletOutputStream delegate;
+        private long count;
+        
+        private CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
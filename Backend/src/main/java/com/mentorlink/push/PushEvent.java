@@ -0,0 +1,25 @@
+package com.mentorlink.push;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A question change serialized for server-sent-event subscribers, in the
+ * form relayed to the other backend nodes. {@code listData} is what category
+ * subscribers get instead of {@code data}, or null when it is the same.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PushEvent {
+    
+    private String name;
+    
+    /** Category of the question, when the publishing node knew it */
+    private String category;
+    
+    private String data;
+    
+    private String listData;
+}
@@ -0,0 +1,438 @@
+package com.mentorlink.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentorlink.cache.BoundedTtlCache;
+import com.mentorlink.cache.CacheInvalidationBus;
+import com.mentorlink.cache.InvalidationMessage;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.entity.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes question changes to server-sent-event subscribers of one question
+ * (answers, votes, edits, deletion) or of one category (new and changed
+ * questions, votes).
+ *
+ * Subscribers are async requests, so an idle one holds no thread. Each
+ * change is serialized once on the publishing thread and offered to every
+ * matching subscriber's bounded queue without blocking; a small dispatcher
+ * pool drains the queues onto the connections. A subscriber whose queue is
+ * full is disconnected (it reconnects and catches up with a delta sync)
+ * rather than slowing down everyone else.
+ *
+ * Writes to a connection block while its TCP send buffer is full. A
+ * subscriber whose write has been stuck for forum.push.send-timeout-ms is
+ * evicted: it gets no more events, its dispatcher thread is interrupted and
+ * the pool gets a replacement thread until the stuck one returns, so stalled
+ * clients cannot starve the others of dispatchers.
+ *
+ * By default subscribers only hear of changes made on their own node. With
+ * forum.push.cross-node=true, changes made on other nodes reach them through
+ * the {@link CacheInvalidationBus}: each local change is relayed, already
+ * serialized, to the other nodes, which deliver it as if it had happened
+ * locally. With the mongo transport that is one extra insert per change, so
+ * it is only worth enabling where clients subscribe and are spread over
+ * several nodes.
+ */
+@Component
+public class QuestionEventBroadcaster {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionEventBroadcaster.class);
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus relay;
+    private final boolean crossNode;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+    private final int dispatchThreads;
+    private final ThreadPoolExecutor dispatcher;
+    
+    private final Map<String, Set<Subscriber>> byQuestion = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalledSends = new AtomicInteger();
+    
+    /** Category of recently seen questions, for events that carry only an id */
+    private final BoundedTtlCache<String, String> categories;
+    
+    public QuestionEventBroadcaster(ObjectMapper objectMapper,
+                                    CacheInvalidationBus relay,
+                                    @Value("${forum.push.cross-node:false}") boolean crossNode,
+                                    @Value("${forum.push.buffer-size:64}") int bufferSize,
+                                    @Value("${forum.push.max-subscribers:50000}") int maxSubscribers,
+                                    @Value("${forum.push.timeout-ms:1800000}") long timeoutMs,
+                                    @Value("${forum.push.send-timeout-ms:5000}") long sendTimeoutMs,
+                                    @Value("${forum.push.dispatch-threads:4}") int dispatchThreads) {
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+        this.crossNode = crossNode;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.dispatchThreads = dispatchThreads;
+        this.categories = new BoundedTtlCache<>(100_000, timeoutMs);
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "question-push");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    @PostConstruct
+    public void subscribeRelay() {
+        if (crossNode) {
+            relay.subscribe(this::onRelayed);
+        }
+    }
+    
+    /**
+     * Subscribe to the changes of one question
+     */
+    public SseEmitter subscribeQuestion(Question question) {
+        categories.put(question.getId(), question.getCategory());
+        return subscribe(byQuestion, question.getId());
+    }
+    
+    /**
+     * Subscribe to the changes of questions in one category
+     */
+    public SseEmitter subscribeCategory(String category) {
+        return subscribe(byCategory, category.toLowerCase());
+    }
+    
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+    
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        if (subscribers.isEmpty() && !crossNode) {
+            return;
+        }
+        
+        String questionId = event.getQuestionId();
+        Question question = event.getQuestion();
+        String category = question != null ? question.getCategory() : categories.get(questionId);
+        
+        PushEvent push;
+        try {
+            // List views only need the new answer count, not the answer itself
+            String listData = event.getType() == QuestionChangedEvent.Type.ANSWER_ADDED
+                ? objectMapper.writeValueAsString(countPayload(event)) : null;
+            push = new PushEvent(event.getType().name().toLowerCase(), category,
+                objectMapper.writeValueAsString(payloadOf(event)), listData);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize {} event for question {}", event.getType(), questionId, e);
+            return;
+        }
+        
+        deliver(questionId, push);
+        if (crossNode) {
+            relay.publish(new InvalidationMessage(event.getType(), questionId,
+                InvalidationMessage.UNKNOWN_VERSION, nodeId, push));
+        }
+    }
+    
+    /**
+     * Deliver a change relayed from another node
+     */
+    void onRelayed(InvalidationMessage message) {
+        if (message.getPush() == null || nodeId.equals(message.getOrigin())) {
+            return;
+        }
+        deliver(message.getQuestionId(), message.getPush());
+    }
+    
+    private void deliver(String questionId, PushEvent push) {
+        String category = push.getCategory();
+        if (category != null) {
+            categories.put(questionId, category);
+        } else {
+            category = categories.get(questionId);
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        
+        Set<Subscriber> questionSubscribers = byQuestion.get(questionId);
+        Set<Subscriber> categorySubscribers = category != null ? byCategory.get(category) : null;
+        if (isEmpty(questionSubscribers) && isEmpty(categorySubscribers)) {
+            return;
+        }
+        
+        Message message = new Message(push.getName(), push.getData());
+        if (questionSubscribers != null) {
+            questionSubscribers.forEach(subscriber -> subscriber.offer(message));
+        }
+        if (categorySubscribers != null) {
+            Message listMessage = push.getListData() != null
+                ? new Message("answer_count", push.getListData()) : message;
+            categorySubscribers.forEach(subscriber -> subscriber.offer(listMessage));
+        }
+    }
+    
+    /**
+     * Keep idle connections open through proxies and detect closed ones
+     */
+    @Scheduled(fixedDelayString = "${forum.push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(Message.HEARTBEAT));
+    }
+    
+    /**
+     * Evict subscribers whose write has been blocked for longer than the
+     * send timeout. The emitter cannot be completed here, since the blocked
+     * send holds its lock; the interrupted or eventually failing write
+     * closes it.
+     */
+    @Scheduled(fixedDelayString = "${forum.push.stall-check-ms:1000}")
+    public void evictStalled() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : sending) {
+            synchronized (subscriber.sendLock) {
+                long since = subscriber.sendingSince;
+                if (subscriber.sender == null || subscriber.stalled || since == 0 || now - since <= sendTimeoutMs) {
+                    continue;
+                }
+                logger.debug("Evicting push subscriber on {} stalled for {} ms", subscriber.key, now - since);
+                subscriber.stalled = true;
+                subscriber.remove();
+                resizeDispatcher(stalledSends.incrementAndGet());
+                subscriber.sender.interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Keep dispatchThreads threads free on top of the ones stuck in a send
+     */
+    private synchronized void resizeDispatcher(int stalled) {
+        int size = dispatchThreads + stalled;
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        dispatcher.shutdownNow();
+    }
+    
+    private SseEmitter subscribe(Map<String, Set<Subscriber>> channels, String key) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RuntimeException("Too many subscribers, try again later");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, channels, key);
+        channels.compute(key, (k, set) -> {
+            Set<Subscriber> channel = set != null ? set : ConcurrentHashMap.<Subscriber>newKeySet();
+            channel.add(subscriber);
+            return channel;
+        });
+        subscribers.add(subscriber);
+        
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        return emitter;
+    }
+    
+    private static Map<String, Object> payloadOf(QuestionChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("questionId", event.getQuestionId());
+        Question question = event.getQuestion();
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                payload.put("title", question.getTitle());
+                payload.put("snippet", question.getSnippet());
+                payload.put("category", question.getCategory());
+                payload.put("tags", question.getTags());
+                payload.put("upvotes", question.getUpvotes());
+                payload.put("answerCount", question.getAnswerCount());
+                payload.put("createdAt", question.getCreatedAt());
+                payload.put("updatedAt", question.getUpdatedAt());
+                break;
+            case ANSWER_ADDED:
+                payload.put("answer", event.getAnswer());
+                payload.put("answerCount", question.getAnswerCount());
+                break;
+            case UPVOTED:
+                payload.put("delta", event.getUpvoteDelta());
+                break;
+            default:
+                break;
+        }
+        return payload;
+    }
+    
+    private static Map<String, Object> countPayload(QuestionChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("questionId", event.getQuestionId());
+        payload.put("answerCount", event.getQuestion().getAnswerCount());
+        return payload;
+    }
+    
+    private static boolean isEmpty(Set<Subscriber> subscribers) {
+        return subscribers == null || subscribers.isEmpty();
+    }
+    
+    /**
+     * An event serialized once for all its subscribers; a null name marks a
+     * heartbeat comment
+     */
+    private static final class Message {
+        private static final Message HEARTBEAT = new Message(null, null);
+        
+        private final String name;
+        private final String data;
+        
+        private Message(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+    
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Map<String, Set<Subscriber>> channels;
+        private final String key;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private final Object sendLock = new Object();
+        private Thread sender;
+        private boolean stalled;
+        private volatile long sendingSince;
+        
+        private Subscriber(SseEmitter emitter, Map<String, Set<Subscriber>> channels, String key) {
+            this.emitter = emitter;
+            this.channels = channels;
+            this.key = key;
+        }
+        
+        private void offer(Message message) {
+            if (removed.get()) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                logger.debug("Dropping slow push subscriber on {}", key);
+                close();
+                return;
+            }
+            schedule();
+        }
+        
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+        
+        private void drain() {
+            synchronized (sendLock) {
+                sender = Thread.currentThread();
+            }
+            sending.add(this);
+            try {
+                Message message;
+                while (!removed.get() && (message = queue.poll()) != null) {
+                    sendingSince = System.currentTimeMillis();
+                    if (message.name == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        emitter.send(SseEmitter.event().name(message.name).data(message.data, MediaType.APPLICATION_JSON));
+                    }
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove();
+            } finally {
+                sendingSince = 0;
+                sending.remove(this);
+                boolean evicted;
+                synchronized (sendLock) {
+                    sender = null;
+                    evicted = stalled;
+                    if (stalled) {
+                        // The stuck send returned; give back its replacement thread
+                        stalled = false;
+                        resizeDispatcher(stalledSends.decrementAndGet());
+                        Thread.interrupted();
+                    }
+                }
+                if (evicted) {
+                    close();
+                }
+                scheduled.set(false);
+            }
+            if (!removed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+        
+        private void close() {
+            remove();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+        
+        private void remove() {
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            subscriberCount.decrementAndGet();
+            queue.clear();
+            channels.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
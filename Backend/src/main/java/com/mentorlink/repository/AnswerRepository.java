@@ -0,0 +1,19 @@
+package com.mentorlink.repository;
+
+import com.mentorlink.entity.Answer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnswerRepository extends MongoRepository<Answer, String> {
+    
+    List<Answer> findByQuestionId(String questionId, Pageable pageable);
+    
+    List<Answer> findByQuestionIdAndCreatedAtAfterOrderByCreatedAtAsc(String questionId, LocalDateTime since);
+    
+    void deleteByQuestionId(String questionId);
+}
@@ -6,10 +6,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 @Repository
-public interface QuestionRepository extends MongoRepository<Question, String> {
+public interface QuestionRepository extends MongoRepository<Question, String>, QuestionRepositoryCustom {
     
     Page<Question> findAll(Pageable pageable);
     
@@ -19,7 +17,4 @@ public interface QuestionRepository extends MongoRepository<Question, String> {
     
     Page<Question> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
         String title, String content, Pageable pageable);
-    
-    List<Question> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndCategory(
-        String title, String content, String category);
 }
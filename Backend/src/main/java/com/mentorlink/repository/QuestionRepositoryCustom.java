@@ -0,0 +1,138 @@
+package com.mentorlink.repository;
+
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Targeted update operations on the questions collection that avoid loading
+ * and re-saving whole documents.
+ */
+public interface QuestionRepositoryCustom {
+    
+    /**
+     * Atomically add {@code delta} to a question's upvotes and return the new
+     * count, or {@code null} when the question does not exist.
+     */
+    Integer incrementUpvotes(String id, int delta);
+    
+    /**
+     * Current upvote count read through a single-field projection, or
+     * {@code null} when the question does not exist.
+     */
+    Integer findUpvotes(String id);
+    
+    /**
+     * Apply many upvote deltas in one unordered bulk write.
+     */
+    void applyUpvoteDeltas(Map<String, Long> deltas);
+    
+    /**
+     * Author, title, content, category, answerCount and version of a question, without
+     * the embedded answers, or {@code null} when it does not exist.
+     */
+    Question findForEdit(String id);
+    
+    /**
+     * A question without its embedded answers, or {@code null} when it does not exist
+     */
+    Question findWithoutAnswers(String id);
+    
+    /**
+     * $set {@code changes} on a question if it is still at {@code version} and
+     * return it as updated, without the embedded answers. Returns
+     * {@code null} when the version no longer matches or the question is gone.
+     */
+    Question updateIfVersion(String id, Long version, Map<String, Object> changes);
+    
+    /**
+     * Insert questions with one unordered bulk write. Returns the error
+     * message for each list index that failed; the others were inserted.
+     */
+    Map<Integer, String> insertUnordered(List<Question> questions);
+    
+    /**
+     * Atomically append an embedded answer and bump answerCount. Returns false
+     * when the question does not exist.
+     */
+    boolean pushAnswer(String questionId, Answer answer);
+    
+    /**
+     * Atomically bump answerCount for an answer stored in its own collection.
+     * Returns false when the question does not exist.
+     */
+    boolean incrementAnswerCount(String questionId);
+    
+    /**
+     * Answer count read through a single-field projection, or {@code null}
+     * when the question does not exist.
+     */
+    Integer findAnswerCount(String questionId);
+    
+    /**
+     * A window of a question's embedded answers, read with a $slice projection
+     */
+    List<Answer> findEmbeddedAnswers(String questionId, int skip, int limit);
+    
+    /**
+     * One offset page of question summaries matching filter
+     */
+    Page<QuestionSummary> findSummaryPage(Criteria filter, Pageable pageable);
+    
+    /**
+     * One offset page of question summaries matching filter, with the total
+     * taken from {@code total} instead of a count query
+     */
+    Page<QuestionSummary> findSummaryPage(Criteria filter, Pageable pageable, LongSupplier total);
+    
+    /**
+     * Keyset pagination: up to {@code limit} question summaries matching filter
+     * that sort after the cursor on (field, _id). A null cursor starts from the top.
+     */
+    List<QuestionSummary> findSummarySlice(Criteria filter, Sort.Direction direction, String field,
+                                           QuestionCursor after, int limit);
+    
+    /**
+     * Summaries for the given ids, in no particular order
+     */
+    List<QuestionSummary> findSummariesByIds(Collection<String> ids);
+    
+    long countMatching(Criteria filter);
+    
+    /**
+     * Query plan (explain, queryPlanner verbosity) of the query
+     * {@link #findSummaryPage} would run
+     */
+    Document explainSummaryPage(Criteria filter, Pageable pageable);
+    
+    /**
+     * Query plan (explain, queryPlanner verbosity) of the query
+     * {@link #findSummarySlice} would run
+     */
+    Document explainSummarySlice(Criteria filter, Sort.Direction direction, String field,
+                                 QuestionCursor after, int limit);
+    
+    /**
+     * Open a cursor over the raw documents matching filter, without embedded
+     * answers, in no particular order. The caller must close it.
+     */
+    CloseableIterator<Document> streamForExport(Criteria filter, int batchSize);
+    
+    /**
+     * Fill in snippet and answerCount on questions written before those fields
+     * existed. Returns the number of documents updated.
+     */
+    long backfillSummaryFields();
+}
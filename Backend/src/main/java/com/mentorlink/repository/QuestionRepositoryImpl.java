@@ -0,0 +1,353 @@
+package com.mentorlink.repository;
+
+import com.mentorlink.dto.AuthorSummary;
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mongodb.DBRef;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.CloseableIterator;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+public class QuestionRepositoryImpl implements QuestionRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public Integer incrementUpvotes(String id, int delta) {
+        Query query = byId(id);
+        query.fields().include("upvotes");
+        
+        Update update = new Update()
+            .inc("upvotes", delta)
+            .inc("version", 1)
+            .set("updatedAt", LocalDateTime.now());
+        
+        Question updated = mongoTemplate.findAndModify(
+            query, update, FindAndModifyOptions.options().returnNew(true), Question.class);
+        return updated != null ? updated.getUpvotes() : null;
+    }
+    
+    @Override
+    public Integer findUpvotes(String id) {
+        Query query = byId(id);
+        query.fields().include("upvotes");
+        
+        Question question = mongoTemplate.findOne(query, Question.class);
+        if (question == null) {
+            return null;
+        }
+        return question.getUpvotes() != null ? question.getUpvotes() : 0;
+    }
+    
+    @Override
+    public void applyUpvoteDeltas(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Question.class);
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((id, delta) ->
+            bulk.updateOne(byId(id), new Update().inc("upvotes", delta).inc("version", 1).set("updatedAt", now)));
+        bulk.execute();
+    }
+    
+    @Override
+    public Question findForEdit(String id) {
+        Query query = byId(id);
+        query.fields().include("author", "title", "content", "category", "answerCount", "version");
+        return mongoTemplate.findOne(query, Question.class);
+    }
+    
+    @Override
+    public Question findWithoutAnswers(String id) {
+        Query query = byId(id);
+        query.fields().exclude("answers");
+        return mongoTemplate.findOne(query, Question.class);
+    }
+    
+    @Override
+    public Question updateIfVersion(String id, Long version, Map<String, Object> changes) {
+        // Documents written before versioning have no version field; is(null) matches those
+        Query query = new Query(where("_id").is(id).and("version").is(version));
+        query.fields().exclude("answers");
+        
+        Update update = new Update().inc("version", 1);
+        changes.forEach(update::set);
+        return mongoTemplate.findAndModify(
+            query, update, FindAndModifyOptions.options().returnNew(true), Question.class);
+    }
+    
+    @Override
+    public Map<Integer, String> insertUnordered(List<Question> questions) {
+        if (questions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Question.class);
+        bulk.insert(questions);
+        try {
+            bulk.execute();
+            return Collections.emptyMap();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        }
+    }
+    
+    @Override
+    public boolean pushAnswer(String questionId, Answer answer) {
+        Update update = new Update()
+            .push("answers", answer)
+            .inc("answerCount", 1)
+            .inc("version", 1)
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(questionId), update, Question.class).getMatchedCount() > 0;
+    }
+    
+    @Override
+    public boolean incrementAnswerCount(String questionId) {
+        Update update = new Update()
+            .inc("answerCount", 1)
+            .inc("version", 1)
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(questionId), update, Question.class).getMatchedCount() > 0;
+    }
+    
+    @Override
+    public Integer findAnswerCount(String questionId) {
+        Query query = byId(questionId);
+        query.fields().include("answerCount");
+        
+        Question question = mongoTemplate.findOne(query, Question.class);
+        if (question == null) {
+            return null;
+        }
+        return question.getAnswerCount() != null ? question.getAnswerCount() : 0;
+    }
+    
+    @Override
+    public List<Answer> findEmbeddedAnswers(String questionId, int skip, int limit) {
+        Query query = byId(questionId);
+        query.fields().include("answerCount").slice("answers", skip, limit);
+        
+        Question question = mongoTemplate.findOne(query, Question.class);
+        if (question == null || question.getAnswers() == null) {
+            return new ArrayList<>();
+        }
+        return question.getAnswers();
+    }
+    
+    @Override
+    public Page<QuestionSummary> findSummaryPage(Criteria filter, Pageable pageable) {
+        return findSummaryPage(filter, pageable, () -> mongoTemplate.count(new Query(filter), Question.class));
+    }
+    
+    @Override
+    public Page<QuestionSummary> findSummaryPage(Criteria filter, Pageable pageable, LongSupplier total) {
+        List<QuestionSummary> summaries = findSummaries(new Query(filter).with(pageable));
+        return PageableExecutionUtils.getPage(summaries, pageable, total);
+    }
+    
+    @Override
+    public List<QuestionSummary> findSummarySlice(Criteria filter, Sort.Direction direction, String field,
+                                                  QuestionCursor after, int limit) {
+        return findSummaries(sliceQuery(filter, direction, field, after, limit));
+    }
+    
+    @Override
+    public Document explainSummaryPage(Criteria filter, Pageable pageable) {
+        return explain(withSummaryFields(new Query(filter).with(pageable)));
+    }
+    
+    @Override
+    public Document explainSummarySlice(Criteria filter, Sort.Direction direction, String field,
+                                        QuestionCursor after, int limit) {
+        return explain(withSummaryFields(sliceQuery(filter, direction, field, after, limit)));
+    }
+    
+    private static Query sliceQuery(Criteria filter, Sort.Direction direction, String field,
+                                    QuestionCursor after, int limit) {
+        Criteria criteria = after == null ? filter : new Criteria().andOperator(filter, keyset(direction, field, after));
+        return new Query(criteria)
+            .with(Sort.by(direction, field).and(Sort.by(direction, "_id")))
+            .limit(limit);
+    }
+    
+    /**
+     * Run the find command for query through explain (queryPlanner
+     * verbosity), mapped exactly as MongoTemplate would send it
+     */
+    private Document explain(Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+            .getRequiredPersistentEntity(Question.class);
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        
+        Document find = new Document("find", mongoTemplate.getCollectionName(Question.class))
+            .append("filter", mapper.getMappedObject(query.getQueryObject(), entity))
+            .append("sort", mapper.getMappedSort(query.getSortObject(), entity))
+            .append("projection", mapper.getMappedFields(query.getFieldsObject(), entity));
+        if (query.getSkip() > 0) {
+            find.append("skip", query.getSkip());
+        }
+        if (query.getLimit() > 0) {
+            find.append("limit", query.getLimit());
+        }
+        return mongoTemplate.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+    
+    @Override
+    public List<QuestionSummary> findSummariesByIds(Collection<String> ids) {
+        return findSummaries(new Query(where("_id").in(ids)));
+    }
+    
+    @Override
+    public long countMatching(Criteria filter) {
+        return mongoTemplate.count(new Query(filter), Question.class);
+    }
+    
+    @Override
+    public CloseableIterator<Document> streamForExport(Criteria filter, int batchSize) {
+        Query query = new Query(filter).cursorBatchSize(batchSize);
+        query.fields().exclude("answers").exclude("snippet");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Question.class));
+    }
+    
+    /**
+     * Documents strictly after the cursor in (field, _id) order. Mongo sorts
+     * missing/null values lowest, so they follow every value when descending
+     * and precede every value when ascending.
+     */
+    private static Criteria keyset(Sort.Direction direction, String field, QuestionCursor after) {
+        boolean descending = direction == Sort.Direction.DESC;
+        ObjectId lastId = new ObjectId(after.getId());
+        Criteria idTiebreak = descending ? where("_id").lt(lastId) : where("_id").gt(lastId);
+        Object value = after.getValue();
+        
+        if (value == null) {
+            Criteria sameNull = new Criteria().andOperator(where(field).is(null), idTiebreak);
+            return descending ? sameNull : new Criteria().orOperator(sameNull, where(field).ne(null));
+        }
+        
+        Criteria beyond = descending ? where(field).lt(value) : where(field).gt(value);
+        Criteria sameValue = new Criteria().andOperator(where(field).is(value), idTiebreak);
+        return descending
+            ? new Criteria().orOperator(beyond, sameValue, where(field).is(null))
+            : new Criteria().orOperator(beyond, sameValue);
+    }
+    
+    @Override
+    public long backfillSummaryFields() {
+        // Each field is only computed where it is missing; a document lacking
+        // just one of them keeps the other as stored
+        AggregationUpdate update = AggregationUpdate.update()
+            .set("snippet").toValue(ConditionalOperators.ifNull("snippet").thenValueOf(
+                StringOperators.valueOf("content").substringCP(0, QuestionSummary.SNIPPET_LENGTH)))
+            .set("answerCount").toValue(ConditionalOperators.ifNull("answerCount").thenValueOf(
+                ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("answers").then(Collections.emptyList()))))
+            .set("version").toValue(ArithmeticOperators.valueOf(ConditionalOperators.ifNull("version").then(0)).add(1));
+        Query missing = new Query(new Criteria().orOperator(
+            where("snippet").exists(false), where("answerCount").exists(false)));
+        return mongoTemplate.updateMulti(missing, update, Question.class).getModifiedCount();
+    }
+    
+    /**
+     * Run a query with the summary field projection. Results are read as raw
+     * documents so the author DBRef is not resolved; only its id is kept.
+     */
+    private List<QuestionSummary> findSummaries(Query query) {
+        withSummaryFields(query);
+        List<Document> documents = mongoTemplate.query(Question.class).as(Document.class).matching(query).all();
+        List<QuestionSummary> summaries = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            summaries.add(toSummary(document));
+        }
+        return summaries;
+    }
+    
+    private static Query withSummaryFields(Query query) {
+        query.fields()
+            .include("title").include("snippet").include("category").include("tags")
+            .include("upvotes").include("answerCount").include("author").include("authorSnapshot")
+            .include("createdAt").include("updatedAt");
+        return query;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static QuestionSummary toSummary(Document document) {
+        QuestionSummary summary = new QuestionSummary();
+        summary.setId(document.get("_id").toString());
+        summary.setTitle(document.getString("title"));
+        summary.setSnippet(document.getString("snippet"));
+        summary.setCategory(document.getString("category"));
+        summary.setTags((List<String>) document.get("tags"));
+        summary.setUpvotes(intValue(document.get("upvotes")));
+        summary.setAnswerCount(intValue(document.get("answerCount")));
+        summary.setCreatedAt(toLocalDateTime(document.getDate("createdAt")));
+        summary.setUpdatedAt(toLocalDateTime(document.getDate("updatedAt")));
+        
+        Object author = document.get("author");
+        if (author instanceof DBRef) {
+            summary.setAuthorId(((DBRef) author).getId().toString());
+        }
+        Document snapshot = document.get("authorSnapshot", Document.class);
+        if (snapshot != null) {
+            // Older snapshots hold the author id in _id until the fanout rewrites them
+            Object authorId = snapshot.containsKey("id") ? snapshot.get("id") : snapshot.get("_id");
+            summary.setAuthor(new AuthorSummary(authorId != null ? authorId.toString() : null, snapshot.getString("name"),
+                snapshot.getString("profilePicture"), snapshot.getString("role")));
+        }
+        return summary;
+    }
+    
+    private static Integer intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()) : null;
+    }
+    
+    private static Query byId(String id) {
+        return new Query(where("_id").is(id));
+    }
+}
@@ -0,0 +1,14 @@
+package com.mentorlink.repository;
+
+import com.mentorlink.entity.QuestionTombstone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface QuestionTombstoneRepository extends MongoRepository<QuestionTombstone, String> {
+    
+    List<QuestionTombstone> findByDeletedAtAfter(LocalDateTime since);
+}
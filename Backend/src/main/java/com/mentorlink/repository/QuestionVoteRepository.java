@@ -0,0 +1,11 @@
+package com.mentorlink.repository;
+
+import com.mentorlink.entity.QuestionVote;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuestionVoteRepository extends MongoRepository<QuestionVote, String> {
+    
+    void deleteByQuestionId(String questionId);
+}
@@ -0,0 +1,566 @@
+package com.mentorlink.search;
+
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mentorlink.event.QuestionChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * In-process inverted index over question title, tags, content and answers,
+ * ranked with BM25F (per-field weighted term frequencies).
+ *
+ * Every indexed question gets a dense document number; postings are kept in
+ * document-number order as parallel int/float arrays. Re-indexing a question
+ * retires its old number and appends a new one, and retired numbers are
+ * dropped from the postings by compaction once they make up a quarter of the
+ * index. Each postings list also counts its live documents, so retired
+ * postings never inflate a term's document frequency. Answer term frequencies are also kept per document, so an edit of
+ * the question's own fields can be re-indexed without reloading its answers.
+ * The index is built from Mongo at startup and maintained from
+ * {@link QuestionChangedEvent}s; until it is ready, {@link #isReady()} is false
+ * and callers should fall back to a database query.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionSearchIndex.class);
+    
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float CONTENT_WEIGHT = 1.0f;
+    private static final float ANSWER_WEIGHT = 0.5f;
+    
+    private static final int MIN_COMPACTION_SIZE = 10_000;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${forum.answers.storage:embedded}")
+    private String answerStorage;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docNumbers = new HashMap<>();
+    private final List<String> docIds = new ArrayList<>();
+    private final List<Map<String, Float>> docAnswerTerms = new ArrayList<>();
+    private final List<String[]> docTerms = new ArrayList<>();
+    private float[] docLengths = new float[1024];
+    private long[] docCreatedAt = new long[1024];
+    private String[] docCategories = new String[1024];
+    private final BitSet live = new BitSet();
+    private double totalLength;
+    
+    private final Queue<ScoreBuffer> scoreBuffers = new ConcurrentLinkedQueue<>();
+    
+    private volatile boolean ready;
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Build the index from the questions collection in the background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "question-search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+    
+    /**
+     * Re-read every question from Mongo and index it. Answers kept in their
+     * own collection are loaded per batch of questions.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        boolean answersInCollection = "collection".equalsIgnoreCase(answerStorage);
+        Query query = new Query();
+        query.fields().include("title").include("content").include("tags")
+            .include("category").include("createdAt");
+        if (!answersInCollection) {
+            query.fields().include("answers.content");
+        }
+        query.cursorBatchSize(REBUILD_BATCH_SIZE);
+        
+        int count = 0;
+        try (CloseableIterator<Question> questions = mongoTemplate.stream(query, Question.class)) {
+            List<Question> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            while (questions.hasNext()) {
+                batch.add(questions.next());
+                if (batch.size() == REBUILD_BATCH_SIZE || !questions.hasNext()) {
+                    if (answersInCollection) {
+                        attachAnswers(batch);
+                    }
+                    batch.forEach(this::index);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            ready = true;
+            logger.info("Question search index built: {} questions in {} ms",
+                count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to build question search index after {} questions", count, e);
+        }
+    }
+    
+    private void attachAnswers(List<Question> batch) {
+        Map<String, Question> byId = new HashMap<>();
+        for (Question question : batch) {
+            question.setAnswers(new ArrayList<>());
+            byId.put(question.getId(), question);
+        }
+        Query query = new Query(where("questionId").in(byId.keySet()));
+        query.fields().include("questionId").include("content");
+        for (Answer answer : mongoTemplate.find(query, Answer.class)) {
+            Question question = byId.get(answer.getQuestionId());
+            if (question != null) {
+                question.getAnswers().add(answer);
+            }
+        }
+    }
+    
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                index(event.getQuestion());
+                break;
+            case UPDATED:
+                reindexFields(event.getQuestion());
+                break;
+            case ANSWER_ADDED:
+                addAnswer(event.getQuestionId(), event.getAnswer());
+                break;
+            case DELETED:
+                remove(event.getQuestionId());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Index (or re-index) a question
+     */
+    public void index(Question question) {
+        Map<String, Float> fieldTerms = fieldTerms(question);
+        Map<String, Float> answerTerms = null;
+        if (question.getAnswers() != null && !question.getAnswers().isEmpty()) {
+            answerTerms = new HashMap<>();
+            for (Answer answer : question.getAnswers()) {
+                addField(answerTerms, answer.getContent(), ANSWER_WEIGHT);
+            }
+        }
+        
+        lock.writeLock().lock();
+        try {
+            insert(question, fieldTerms, answerTerms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Re-index a question's title, content, tags and category after an edit,
+     * carrying its answer terms over from the current document. The
+     * question's answers are not looked at; edits load none.
+     */
+    public void reindexFields(Question question) {
+        Map<String, Float> fieldTerms = fieldTerms(question);
+        
+        lock.writeLock().lock();
+        try {
+            Integer doc = docNumbers.get(question.getId());
+            insert(question, fieldTerms, doc != null ? docAnswerTerms.get(doc) : null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private static Map<String, Float> fieldTerms(Question question) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        addField(termFrequencies, question.getTitle(), TITLE_WEIGHT);
+        addField(termFrequencies, question.getContent(), CONTENT_WEIGHT);
+        if (question.getTags() != null) {
+            for (String tag : question.getTags()) {
+                addField(termFrequencies, tag, TAG_WEIGHT);
+            }
+        }
+        return termFrequencies;
+    }
+    
+    /**
+     * Retire the question's current document and append a new one. Caller
+     * holds the write lock.
+     */
+    private void insert(Question question, Map<String, Float> fieldTerms, Map<String, Float> answerTerms) {
+        retire(question.getId());
+        
+        Map<String, Float> termFrequencies = new HashMap<>(fieldTerms);
+        if (answerTerms != null) {
+            answerTerms.forEach((term, tf) -> termFrequencies.merge(term, tf, Float::sum));
+        }
+        // A document's length is the sum of its weighted term frequencies
+        float length = 0;
+        for (float tf : termFrequencies.values()) {
+            length += tf;
+        }
+        
+        int doc = docIds.size();
+        docIds.add(question.getId());
+        docAnswerTerms.add(answerTerms);
+        docTerms.add(termFrequencies.keySet().toArray(new String[0]));
+        docNumbers.put(question.getId(), doc);
+        ensureCapacity(doc + 1);
+        docLengths[doc] = length;
+        docCreatedAt[doc] = toMillis(question.getCreatedAt());
+        docCategories[doc] = question.getCategory() != null ? question.getCategory().intern() : null;
+        live.set(doc);
+        totalLength += length;
+        
+        termFrequencies.forEach((term, tf) ->
+            postings.computeIfAbsent(term, key -> new Postings()).append(doc, tf));
+    }
+    
+    /**
+     * Add a new answer's terms to an already indexed question
+     */
+    public void addAnswer(String questionId, Answer answer) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = addField(termFrequencies, answer.getContent(), ANSWER_WEIGHT);
+        
+        lock.writeLock().lock();
+        try {
+            Integer doc = docNumbers.get(questionId);
+            if (doc == null) {
+                return;
+            }
+            docLengths[doc] += length;
+            totalLength += length;
+            Map<String, Float> answerTerms = docAnswerTerms.get(doc);
+            if (answerTerms == null) {
+                answerTerms = new HashMap<>();
+                docAnswerTerms.set(doc, answerTerms);
+            }
+            Map<String, Float> target = answerTerms;
+            termFrequencies.forEach((term, tf) -> target.merge(term, tf, Float::sum));
+            List<String> newTerms = new ArrayList<>();
+            termFrequencies.forEach((term, tf) -> {
+                if (postings.computeIfAbsent(term, key -> new Postings()).add(doc, tf)) {
+                    newTerms.add(term);
+                }
+            });
+            if (!newTerms.isEmpty()) {
+                String[] terms = docTerms.get(doc);
+                String[] extended = Arrays.copyOf(terms, terms.length + newTerms.size());
+                for (int i = 0; i < newTerms.size(); i++) {
+                    extended[terms.length + i] = newTerms.get(i);
+                }
+                docTerms.set(doc, extended);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Remove a question from the index
+     */
+    public void remove(String questionId) {
+        lock.writeLock().lock();
+        try {
+            retire(questionId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Rank questions against a free-text query, optionally restricted to one
+     * category. Results are ordered by score, newest first on ties, and the
+     * {@code limit} hits starting at {@code offset} are returned.
+     */
+    public SearchResult search(String queryText, String category, int offset, int limit) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Invalid search window: offset " + offset + ", limit " + limit);
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(queryText)));
+        if (terms.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+        
+        int wanted = Math.addExact(offset, limit);
+        
+        ScoreBuffer pooled = scoreBuffers.poll();
+        ScoreBuffer buffer = pooled != null ? pooled : new ScoreBuffer();
+        lock.readLock().lock();
+        try {
+            buffer.reset(docIds.size());
+            
+            int liveDocs = Math.max(live.cardinality(), 1);
+            float avgLength = (float) (totalLength / liveDocs);
+            
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                if (termPostings.live == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocs - termPostings.live + 0.5) / (termPostings.live + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int doc = termPostings.docs[i];
+                    if (!live.get(doc) || (category != null && !category.equals(docCategories[doc]))) {
+                        continue;
+                    }
+                    float tf = termPostings.frequencies[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    buffer.add(doc, (float) (idf * tf * (K1 + 1) / (tf + norm)));
+                }
+            }
+            
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(wanted, buffer.touchedCount) + 1,
+                (a, b) -> compareHits(buffer, a, b));
+            for (int i = 0; i < buffer.touchedCount; i++) {
+                top.offer(buffer.touched[i]);
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+            
+            Integer[] ranked = top.toArray(new Integer[0]);
+            Arrays.sort(ranked, (a, b) -> compareHits(buffer, b, a));
+            
+            List<String> ids = new ArrayList<>(Math.max(ranked.length - offset, 0));
+            for (int i = offset; i < ranked.length; i++) {
+                ids.add(docIds.get(ranked[i]));
+            }
+            return new SearchResult(ids, buffer.touchedCount);
+        } finally {
+            lock.readLock().unlock();
+            scoreBuffers.offer(buffer);
+        }
+    }
+    
+    private int compareHits(ScoreBuffer buffer, int a, int b) {
+        int byScore = Float.compare(buffer.scores[a], buffer.scores[b]);
+        return byScore != 0 ? byScore : Long.compare(docCreatedAt[a], docCreatedAt[b]);
+    }
+    
+    private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+        List<String> terms = SearchTokenizer.tokenize(text);
+        for (String term : terms) {
+            termFrequencies.merge(term, weight, Float::sum);
+        }
+        return terms.size() * weight;
+    }
+    
+    /**
+     * Mark a question's current document number dead. Caller holds the write lock.
+     */
+    private void retire(String questionId) {
+        Integer doc = docNumbers.remove(questionId);
+        if (doc == null) {
+            return;
+        }
+        live.clear(doc);
+        totalLength -= docLengths[doc];
+        docAnswerTerms.set(doc, null);
+        for (String term : docTerms.get(doc)) {
+            Postings termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.live--;
+            }
+        }
+        docTerms.set(doc, null);
+        
+        int retired = docIds.size() - docNumbers.size();
+        if (docIds.size() >= MIN_COMPACTION_SIZE && retired * 4 >= docIds.size()) {
+            compact();
+        }
+    }
+    
+    /**
+     * Renumber live documents densely and drop retired postings. Caller holds the write lock.
+     */
+    private void compact() {
+        int[] remap = new int[docIds.size()];
+        List<String> newIds = new ArrayList<>(docNumbers.size());
+        List<Map<String, Float>> newAnswerTerms = new ArrayList<>(docNumbers.size());
+        List<String[]> newTerms = new ArrayList<>(docNumbers.size());
+        float[] newLengths = new float[Math.max(docNumbers.size(), 1024)];
+        long[] newCreatedAt = new long[newLengths.length];
+        String[] newCategories = new String[newLengths.length];
+        
+        for (int doc = 0; doc < docIds.size(); doc++) {
+            if (!live.get(doc)) {
+                remap[doc] = -1;
+                continue;
+            }
+            int renumbered = newIds.size();
+            remap[doc] = renumbered;
+            newIds.add(docIds.get(doc));
+            newAnswerTerms.add(docAnswerTerms.get(doc));
+            newTerms.add(docTerms.get(doc));
+            newLengths[renumbered] = docLengths[doc];
+            newCreatedAt[renumbered] = docCreatedAt[doc];
+            newCategories[renumbered] = docCategories[doc];
+        }
+        
+        postings.values().removeIf(termPostings -> termPostings.remap(remap) == 0);
+        
+        docIds.clear();
+        docIds.addAll(newIds);
+        docAnswerTerms.clear();
+        docAnswerTerms.addAll(newAnswerTerms);
+        docTerms.clear();
+        docTerms.addAll(newTerms);
+        docLengths = newLengths;
+        docCreatedAt = newCreatedAt;
+        docCategories = newCategories;
+        live.clear();
+        live.set(0, docIds.size());
+        docNumbers.clear();
+        for (int doc = 0; doc < docIds.size(); doc++) {
+            docNumbers.put(docIds.get(doc), doc);
+        }
+    }
+    
+    private void ensureCapacity(int size) {
+        if (size > docLengths.length) {
+            int capacity = Math.max(size, docLengths.length * 2);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docCreatedAt = Arrays.copyOf(docCreatedAt, capacity);
+            docCategories = Arrays.copyOf(docCategories, capacity);
+        }
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+    
+    /**
+     * Postings list for one term, sorted by document number. {@code live}
+     * counts the postings of live documents, the term's document frequency.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+        private int live;
+        
+        void append(int doc, float tf) {
+            grow();
+            docs[size] = doc;
+            frequencies[size] = tf;
+            size++;
+            live++;
+        }
+        
+        /**
+         * Add to a document's frequency; true when the document had no posting yet
+         */
+        boolean add(int doc, float tf) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0) {
+                frequencies[pos] += tf;
+                return false;
+            }
+            int insertAt = -pos - 1;
+            grow();
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            docs[insertAt] = doc;
+            frequencies[insertAt] = tf;
+            size++;
+            live++;
+            return true;
+        }
+        
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            live = kept;
+            return kept;
+        }
+        
+        private void grow() {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+        }
+    }
+    
+    /**
+     * Dense score accumulator, pooled between searches and reset by clearing
+     * only the slots the previous search touched
+     */
+    private static final class ScoreBuffer {
+        private float[] scores = new float[0];
+        private int[] touched = new int[256];
+        private int touchedCount;
+        
+        void reset(int docCount) {
+            if (scores.length < docCount) {
+                scores = new float[Math.max(docCount, scores.length * 2)];
+            } else {
+                for (int i = 0; i < touchedCount; i++) {
+                    scores[touched[i]] = 0;
+                }
+            }
+            touchedCount = 0;
+        }
+        
+        void add(int doc, float score) {
+            if (scores[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+    }
+}
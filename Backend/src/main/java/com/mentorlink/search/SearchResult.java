@@ -0,0 +1,18 @@
+package com.mentorlink.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of ranked question ids plus the total number of matches
+ */
+@Getter
+@AllArgsConstructor
+public class SearchResult {
+    
+    private final List<String> ids;
+    
+    private final long total;
+}
@@ -0,0 +1,103 @@
+package com.mentorlink.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits forum text into lowercase, stemmed search terms
+ */
+public final class SearchTokenizer {
+    
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "do", "does", "for",
+        "from", "has", "have", "how", "i", "if", "in", "into", "is", "it", "its", "me",
+        "my", "no", "not", "of", "on", "or", "so", "such", "that", "the", "their",
+        "then", "there", "these", "they", "this", "to", "was", "we", "what", "when",
+        "which", "who", "why", "will", "with", "you", "your"));
+    
+    private SearchTokenizer() {
+    }
+    
+    /**
+     * Tokenize text into search terms. Letters, digits, '+' and '#' form terms
+     * (so "c++" and "c#" survive); stop words are dropped.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean termChar = i < lower.length() && isTermChar(lower.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                addTerm(terms, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+    
+    private static boolean isTermChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+    
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < 2 && !Character.isDigit(token.charAt(0))) {
+            return;
+        }
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+    
+    /**
+     * Light suffix-stripping stemmer (plural and common verb endings), enough
+     * to make "databases"/"database" and "indexing"/"index" match.
+     */
+    static String stem(String term) {
+        if (term.length() <= 3 || !Character.isLetter(term.charAt(term.length() - 1))) {
+            return term;
+        }
+        
+        if (term.endsWith("sses")) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("ies") && term.length() > 4) {
+            return term.substring(0, term.length() - 3) + "y";
+        }
+        if (term.endsWith("ing") && term.length() > 5) {
+            return undouble(term.substring(0, term.length() - 3));
+        }
+        if (term.endsWith("ed") && term.length() > 4) {
+            return undouble(term.substring(0, term.length() - 2));
+        }
+        if (term.endsWith("ly") && term.length() > 5) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("es") && (term.endsWith("xes") || term.endsWith("ches") || term.endsWith("shes"))) {
+            return term.substring(0, term.length() - 2);
+        }
+        if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+    
+    private static String undouble(String stem) {
+        int n = stem.length();
+        if (n > 2 && stem.charAt(n - 1) == stem.charAt(n - 2) && "lsz".indexOf(stem.charAt(n - 1)) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mentorlink.service;
+
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * When answers are stored in their own collection, moves answers still
+ * embedded in question documents into the answers collection on startup.
+ * Answers keep their ids and are upserted, so an interrupted run is safe to
+ * repeat. Runs after {@link QuestionSummaryBackfill}, which still needs the
+ * embedded answers to count them.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerStorageMigration {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnswerStorageMigration.class);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${forum.answers.storage:embedded}")
+    private String answerStorage;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(QuestionSummaryBackfill.ORDER + 1)
+    public void migrate() {
+        if (!"collection".equalsIgnoreCase(answerStorage)) {
+            return;
+        }
+        
+        Query query = new Query(where("answers.0").exists(true));
+        query.fields().include("answers");
+        
+        int migrated = 0;
+        try (CloseableIterator<Question> questions = mongoTemplate.stream(query, Question.class)) {
+            while (questions.hasNext()) {
+                Question question = questions.next();
+                
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Answer.class);
+                for (Answer answer : question.getAnswers()) {
+                    answer.setQuestionId(question.getId());
+                    bulk.replaceOne(new Query(where("_id").is(answer.getId())), answer,
+                        FindAndReplaceOptions.options().upsert());
+                }
+                bulk.execute();
+                
+                mongoTemplate.updateFirst(new Query(where("_id").is(question.getId())),
+                    new Update().unset("answers"), Question.class);
+                migrated++;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to move embedded answers after {} questions", migrated, e);
+            return;
+        }
+        
+        if (migrated > 0) {
+            logger.info("Moved embedded answers of {} questions into the answers collection", migrated);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.mentorlink.service;
+
+import com.mentorlink.cache.BoundedTtlCache;
+import com.mentorlink.dto.AuthorSummary;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.AuthorSnapshot;
+import com.mentorlink.entity.Question;
+import com.mentorlink.entity.User;
+import com.mentorlink.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves question and answer authors in bulk. Authors are mapped as lazy
+ * DBRefs, so reading questions issues no users queries; this loader collects
+ * every referenced user id from a result, serves what it can from a bounded
+ * TTL cache and fetches the rest with a single $in query.
+ *
+ * With forum.authors.snapshot.enabled, new questions and answers also carry
+ * an {@link AuthorSnapshot}, and content that has one is resolved from it
+ * without touching the users collection.
+ */
+@Component
+public class AuthorLoader {
+    
+    private final UserRepository userRepository;
+    private final BoundedTtlCache<String, User> users;
+    private final boolean snapshots;
+    
+    public AuthorLoader(UserRepository userRepository,
+                        @Value("${forum.authors.cache.max-size:10000}") int maxSize,
+                        @Value("${forum.authors.cache.ttl-seconds:300}") long ttlSeconds,
+                        @Value("${forum.authors.snapshot.enabled:false}") boolean snapshots) {
+        this.userRepository = userRepository;
+        this.users = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.snapshots = snapshots;
+    }
+    
+    public boolean snapshotsEnabled() {
+        return snapshots;
+    }
+    
+    /**
+     * Snapshot to store with new content by user, or null when snapshots
+     * are disabled
+     */
+    public AuthorSnapshot snapshotOf(User user) {
+        return snapshots && user != null ? AuthorSnapshot.from(user) : null;
+    }
+    
+    /**
+     * Drop a user from the cache after their profile changed
+     */
+    public void evict(String userId) {
+        users.invalidate(userId);
+    }
+    
+    /**
+     * Load a single user through the cache
+     */
+    public User load(String userId) {
+        User user = users.get(userId);
+        if (user == null) {
+            user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            users.put(userId, user);
+        }
+        return user;
+    }
+    
+    /**
+     * Load many users with at most one database query
+     */
+    public Map<String, User> loadAll(Collection<String> userIds) {
+        Map<String, User> loaded = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String userId : userIds) {
+            User user = users.get(userId);
+            if (user != null) {
+                loaded.put(userId, user);
+            } else {
+                missing.add(userId);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            for (User user : userRepository.findAllById(missing)) {
+                users.put(user.getId(), user);
+                loaded.put(user.getId(), user);
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Replace the lazy author references of questions and their answers with
+     * loaded users
+     */
+    public void hydrate(Collection<Question> questions) {
+        Set<String> authorIds = new HashSet<>();
+        for (Question question : questions) {
+            addId(authorIds, question.getAuthor(), question.getAuthorSnapshot());
+            if (question.getAnswers() != null) {
+                for (Answer answer : question.getAnswers()) {
+                    addId(authorIds, answer.getAuthor(), answer.getAuthorSnapshot());
+                }
+            }
+        }
+        
+        Map<String, User> authors = authorIds.isEmpty() ? Map.of() : loadAll(authorIds);
+        for (Question question : questions) {
+            question.setAuthor(resolve(authors, question.getAuthor(), question.getAuthorSnapshot()));
+            if (question.getAnswers() != null) {
+                for (Answer answer : question.getAnswers()) {
+                    answer.setAuthor(resolve(authors, answer.getAuthor(), answer.getAuthorSnapshot()));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Replace the lazy author references of answers with loaded users
+     */
+    public void hydrateAnswers(Collection<Answer> answers) {
+        Set<String> authorIds = new HashSet<>();
+        for (Answer answer : answers) {
+            addId(authorIds, answer.getAuthor(), answer.getAuthorSnapshot());
+        }
+        
+        Map<String, User> authors = authorIds.isEmpty() ? Map.of() : loadAll(authorIds);
+        for (Answer answer : answers) {
+            answer.setAuthor(resolve(authors, answer.getAuthor(), answer.getAuthorSnapshot()));
+        }
+    }
+    
+    public Question hydrate(Question question) {
+        hydrate(List.of(question));
+        return question;
+    }
+    
+    /**
+     * Fill in author display fields on a page of summaries. Summaries that
+     * were read with an author snapshot keep it.
+     */
+    public List<QuestionSummary> attach(List<QuestionSummary> summaries) {
+        Set<String> authorIds = new HashSet<>();
+        for (QuestionSummary summary : summaries) {
+            if (summary.getAuthorId() != null && !hasSnapshot(summary)) {
+                authorIds.add(summary.getAuthorId());
+            }
+        }
+        if (authorIds.isEmpty()) {
+            return summaries;
+        }
+        
+        Map<String, User> authors = loadAll(authorIds);
+        for (QuestionSummary summary : summaries) {
+            if (hasSnapshot(summary)) {
+                continue;
+            }
+            User author = authors.get(summary.getAuthorId());
+            summary.setAuthor(author != null ? AuthorSummary.from(author) : null);
+        }
+        return summaries;
+    }
+    
+    /**
+     * Id of a possibly unresolved author reference, without resolving it
+     */
+    public static String idOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        if (user instanceof LazyLoadingProxy) {
+            Object id = ((LazyLoadingProxy) user).toDBRef().getId();
+            return id != null ? id.toString() : null;
+        }
+        return user.getId();
+    }
+    
+    private boolean hasSnapshot(QuestionSummary summary) {
+        return snapshots && summary.getAuthor() != null;
+    }
+    
+    private void addId(Set<String> ids, User user, AuthorSnapshot snapshot) {
+        String id = idOf(user);
+        if (id != null && !(snapshots && snapshot != null)) {
+            ids.add(id);
+        }
+    }
+    
+    private User resolve(Map<String, User> authors, User reference, AuthorSnapshot snapshot) {
+        if (snapshots && snapshot != null) {
+            return snapshot.toUser();
+        }
+        String id = idOf(reference);
+        return id != null ? authors.get(id) : null;
+    }
+}
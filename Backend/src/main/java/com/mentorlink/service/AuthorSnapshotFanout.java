@@ -0,0 +1,250 @@
+package com.mentorlink.service;
+
+import com.mentorlink.cache.QuestionCache;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.AuthorSnapshot;
+import com.mentorlink.entity.Question;
+import com.mentorlink.entity.User;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keeps the author snapshots on questions and answers in sync with user
+ * profiles when forum.authors.snapshot.enabled is set. On startup it fills
+ * in snapshots missing from existing content; after that it watches the
+ * users collection and rewrites the snapshots of a user whose name, picture
+ * or role changed.
+ *
+ * Cached questions keep the old display fields until they are invalidated
+ * or expire; with the change-stream invalidation transport, the snapshot
+ * rewrite invalidates them right away.
+ */
+@Component
+public class AuthorSnapshotFanout {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AuthorSnapshotFanout.class);
+    
+    private static final List<String> DISPLAY_FIELDS = List.of("name", "profilePicture", "role");
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final long RETRY_DELAY_MS = 1000;
+    
+    private final MongoTemplate mongoTemplate;
+    private final AuthorLoader authorLoader;
+    private final QuestionCache questionCache;
+    
+    private volatile boolean running;
+    private volatile MongoCursor<ChangeStreamDocument<Document>> cursor;
+    private BsonDocument resumeToken;
+    
+    public AuthorSnapshotFanout(MongoTemplate mongoTemplate, AuthorLoader authorLoader,
+                                QuestionCache questionCache) {
+        this.mongoTemplate = mongoTemplate;
+        this.authorLoader = authorLoader;
+        this.questionCache = questionCache;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!authorLoader.snapshotsEnabled()) {
+            return;
+        }
+        
+        running = true;
+        Thread watcher = new Thread(this::watch, "author-snapshot-fanout");
+        watcher.setDaemon(true);
+        watcher.start();
+        
+        try {
+            backfill();
+        } catch (Exception e) {
+            logger.error("Failed to backfill author snapshots", e);
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        running = false;
+        MongoCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    /**
+     * Rewrite every snapshot of user that differs from their current
+     * profile. Returns the number of documents updated. Every question
+     * showing a rewritten snapshot, its own or an answer's, gets a new
+     * revision, so its ETag changes.
+     */
+    public long refresh(User user) {
+        AuthorSnapshot snapshot = AuthorSnapshot.from(user);
+        Object ref = refId(user.getId());
+        
+        long updated = mongoTemplate.updateMulti(
+            new Query(new Criteria().andOperator(where("author.$id").is(ref), differs("authorSnapshot", snapshot))),
+            new Update().set("authorSnapshot", snapshot).inc("version", 1), Question.class).getModifiedCount();
+        
+        // Only answers whose snapshot is out of date are rewritten, and only
+        // questions holding one are touched
+        updated += mongoTemplate.updateMulti(
+            new Query(where("answers").elemMatch(
+                new Criteria().andOperator(where("author.$id").is(ref), differs("authorSnapshot", snapshot)))),
+            new Update().set("answers.$[answer].authorSnapshot", snapshot).inc("version", 1)
+                .filterArray(new Criteria().andOperator(
+                    where("answer.author.$id").is(ref), differs("answer.authorSnapshot", snapshot))),
+            Question.class).getModifiedCount();
+        
+        Query staleAnswers = new Query(
+            new Criteria().andOperator(where("author.$id").is(ref), differs("authorSnapshot", snapshot)));
+        List<String> answeredQuestions = mongoTemplate.findDistinct(staleAnswers, "questionId", Answer.class, String.class);
+        long answersUpdated = mongoTemplate.updateMulti(staleAnswers,
+            new Update().set("authorSnapshot", snapshot), Answer.class).getModifiedCount();
+        if (answersUpdated > 0) {
+            mongoTemplate.updateMulti(new Query(where("_id").in(answeredQuestions)),
+                new Update().inc("version", 1), Question.class);
+        }
+        updated += answersUpdated;
+        
+        // Cached questions and listings show the author's display fields
+        if (updated > 0) {
+            questionCache.invalidateAll();
+        }
+        return updated;
+    }
+    
+    /**
+     * Matches a snapshot at path that is missing or differs from snapshot in
+     * any field. Compared field by field, so it does not depend on how the
+     * whole embedded document would be converted.
+     */
+    private static Criteria differs(String path, AuthorSnapshot snapshot) {
+        return new Criteria().orOperator(
+            where(path + ".id").ne(snapshot.getId()),
+            where(path + ".name").ne(snapshot.getName()),
+            where(path + ".profilePicture").ne(snapshot.getProfilePicture()),
+            where(path + ".role").ne(snapshot.getRole()));
+    }
+    
+    /**
+     * Snapshot every author of content written before snapshots were
+     * enabled, and rewrite older snapshots that hold the author id in _id
+     */
+    private void backfill() {
+        Set<String> authorIds = new HashSet<>();
+        authorIds.addAll(distinctIds(Question.class, "author.$id",
+            new Query(where("authorSnapshot.id").exists(false))));
+        authorIds.addAll(distinctIds(Question.class, "answers.author.$id",
+            new Query(where("answers").elemMatch(where("authorSnapshot.id").exists(false)))));
+        authorIds.addAll(distinctIds(Answer.class, "author.$id",
+            new Query(where("authorSnapshot.id").exists(false))));
+        if (authorIds.isEmpty()) {
+            return;
+        }
+        
+        long updated = 0;
+        List<String> ids = new ArrayList<>(authorIds);
+        for (int from = 0; from < ids.size(); from += BACKFILL_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, ids.size()));
+            for (User user : authorLoader.loadAll(batch).values()) {
+                updated += refresh(user);
+            }
+        }
+        logger.info("Backfilled author snapshots for {} authors ({} documents)", ids.size(), updated);
+    }
+    
+    private List<String> distinctIds(Class<?> entity, String field, Query query) {
+        List<String> ids = new ArrayList<>();
+        for (Object id : mongoTemplate.findDistinct(query, field, entity, Object.class)) {
+            if (id != null) {
+                ids.add(id.toString());
+            }
+        }
+        return ids;
+    }
+    
+    private void watch() {
+        String users = mongoTemplate.getCollectionName(User.class);
+        List<Bson> pipeline = List.of(Aggregates.match(Filters.in("operationType",
+            OperationType.UPDATE.getValue(), OperationType.REPLACE.getValue())));
+        while (running) {
+            try {
+                cursor = resumeToken == null
+                    ? mongoTemplate.getCollection(users).watch(pipeline)
+                        .fullDocument(FullDocument.UPDATE_LOOKUP).iterator()
+                    : mongoTemplate.getCollection(users).watch(pipeline)
+                        .fullDocument(FullDocument.UPDATE_LOOKUP).resumeAfter(resumeToken).iterator();
+                while (running && cursor.hasNext()) {
+                    ChangeStreamDocument<Document> change = cursor.next();
+                    resumeToken = change.getResumeToken();
+                    if (change.getFullDocument() != null && touchesDisplayFields(change)) {
+                        User user = mongoTemplate.getConverter().read(User.class, change.getFullDocument());
+                        authorLoader.evict(user.getId());
+                        long updated = refresh(user);
+                        logger.debug("Refreshed {} author snapshots of user {}", updated, user.getId());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("User change stream interrupted, reconnecting", e);
+                sleepBeforeRetry();
+            }
+        }
+    }
+    
+    private static boolean touchesDisplayFields(ChangeStreamDocument<Document> change) {
+        if (change.getOperationType() == OperationType.REPLACE) {
+            return true;
+        }
+        UpdateDescription description = change.getUpdateDescription();
+        if (description == null) {
+            return false;
+        }
+        if (description.getUpdatedFields() != null
+            && description.getUpdatedFields().keySet().stream().anyMatch(DISPLAY_FIELDS::contains)) {
+            return true;
+        }
+        return description.getRemovedFields() != null
+            && description.getRemovedFields().stream().anyMatch(DISPLAY_FIELDS::contains);
+    }
+    
+    private static Object refId(String userId) {
+        return ObjectId.isValid(userId) ? new ObjectId(userId) : userId;
+    }
+    
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
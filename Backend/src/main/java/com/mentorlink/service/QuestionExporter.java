@@ -0,0 +1,98 @@
+package com.mentorlink.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentorlink.repository.QuestionRepository;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes questions as newline-delimited JSON straight from a Mongo cursor.
+ * Documents are read in cursor batches and written one at a time with a
+ * streaming generator, so memory use does not depend on the number of
+ * questions; a slow reader blocks the writes and with them the cursor.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionExporter {
+    
+    private static final int FLUSH_EVERY = 500;
+    
+    private final QuestionRepository questionRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${forum.export.batch-size:1000}")
+    private int batchSize;
+    
+    /**
+     * Write every question matching filter to out, one JSON object per line.
+     * Returns the number of questions written.
+     */
+    public long export(Criteria filter, OutputStream out) throws IOException {
+        long count = 0;
+        try (CloseableIterator<Document> questions = questionRepository.streamForExport(filter, batchSize);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            while (questions.hasNext()) {
+                write(generator, questions.next());
+                generator.writeRaw('\n');
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void write(JsonGenerator generator, Document question) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", question.get("_id").toString());
+        writeString(generator, "title", question.getString("title"));
+        writeString(generator, "content", question.getString("content"));
+        writeString(generator, "category", question.getString("category"));
+        
+        generator.writeArrayFieldStart("tags");
+        Object tags = question.get("tags");
+        if (tags instanceof List) {
+            for (Object tag : (List<Object>) tags) {
+                generator.writeString(String.valueOf(tag));
+            }
+        }
+        generator.writeEndArray();
+        
+        generator.writeNumberField("upvotes", intValue(question.get("upvotes")));
+        generator.writeNumberField("answerCount", intValue(question.get("answerCount")));
+        
+        Object author = question.get("author");
+        writeString(generator, "authorId", author instanceof DBRef ? ((DBRef) author).getId().toString() : null);
+        writeDate(generator, "createdAt", question.getDate("createdAt"));
+        writeDate(generator, "updatedAt", question.getDate("updatedAt"));
+        generator.writeEndObject();
+    }
+    
+    private static void writeString(JsonGenerator generator, String field, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(field, value);
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+    
+    private static void writeDate(JsonGenerator generator, String field, Date value) throws IOException {
+        writeString(generator, field, value != null ? value.toInstant().toString() : null);
+    }
+    
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
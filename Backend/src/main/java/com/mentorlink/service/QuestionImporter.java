@@ -0,0 +1,225 @@
+package com.mentorlink.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.mentorlink.dto.ImportQuestionRequest;
+import com.mentorlink.dto.ImportReport;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Question;
+import com.mentorlink.entity.User;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.facet.FacetCounters;
+import com.mentorlink.repository.QuestionRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk question import. The request body (a JSON array) is parsed
+ * incrementally and processed in chunks: each chunk is validated in
+ * parallel, its authors are resolved with one lookup, and its questions are
+ * written with one unordered bulk insert, so one bad item does not stop the
+ * rest of its chunk. An item of the wrong shape (a string for the tags, say)
+ * is reported as failed and the import goes on; only malformed JSON stops it.
+ */
+@Component
+public class QuestionImporter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionImporter.class);
+    
+    private final QuestionRepository questionRepository;
+    private final AuthorLoader authorLoader;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FacetCounters facetCounters;
+    private final int chunkSize;
+    private final boolean allowAuthorOverride;
+    
+    public QuestionImporter(QuestionRepository questionRepository,
+                            AuthorLoader authorLoader,
+                            Validator validator,
+                            ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventPublisher,
+                            FacetCounters facetCounters,
+                            @Value("${forum.import.chunk-size:1000}") int chunkSize,
+                            @Value("${forum.import.allow-author-override:false}") boolean allowAuthorOverride) {
+        this.questionRepository = questionRepository;
+        this.authorLoader = authorLoader;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.facetCounters = facetCounters;
+        this.chunkSize = chunkSize;
+        this.allowAuthorOverride = allowAuthorOverride;
+    }
+    
+    /**
+     * Import a JSON array of questions on behalf of userId. Items without an
+     * authorId are authored by userId; other authors are only accepted when
+     * forum.import.allow-author-override is set.
+     */
+    public ImportReport importQuestions(InputStream body, String userId) {
+        ImportReport report = new ImportReport();
+        List<ImportQuestionRequest> chunk = new ArrayList<>(chunkSize);
+        Map<Integer, String> parseErrors = new HashMap<>();
+        int index = 0;
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Expected a JSON array of questions");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                // Each item is read whole first, so an item of the wrong shape
+                // fails on its own and the parser is already at the next one
+                JsonNode item = objectMapper.readTree(parser);
+                try {
+                    if (item == null || !item.isObject()) {
+                        throw MismatchedInputException.from(parser, ImportQuestionRequest.class,
+                            "Expected a question object");
+                    }
+                    chunk.add(objectMapper.treeToValue(item, ImportQuestionRequest.class));
+                } catch (JsonMappingException e) {
+                    parseErrors.put(chunk.size(), e.getOriginalMessage());
+                    chunk.add(null);
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, parseErrors, index, userId, report);
+                    index += chunk.size();
+                    chunk.clear();
+                    parseErrors.clear();
+                }
+            }
+            importChunk(chunk, parseErrors, index, userId, report);
+            index += chunk.size();
+            chunk.clear();
+            parseErrors.clear();
+        } catch (IOException e) {
+            // Malformed or truncated input: keep the items parsed so far.
+            // Items already imported are not in the chunk any more, so a
+            // failure closing the parser cannot import them twice.
+            int stoppedAt = index + chunk.size();
+            importChunk(chunk, parseErrors, index, userId, report);
+            report.setError("Import stopped at item " + stoppedAt + ": " + e.getMessage());
+        }
+        
+        logger.info("Imported {} questions ({} failed)", report.getImported(), report.getFailed());
+        return report;
+    }
+    
+    /**
+     * Validate, resolve and insert one chunk. Items that could not be read
+     * are null in the chunk, with their error in parseErrors by position.
+     */
+    private void importChunk(List<ImportQuestionRequest> chunk, Map<Integer, String> parseErrors,
+                             int firstIndex, String userId, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        String[] errors = new String[chunk.size()];
+        IntStream.range(0, chunk.size()).parallel()
+            .forEach(i -> errors[i] = chunk.get(i) != null ? validate(chunk.get(i), userId) : parseErrors.get(i));
+        
+        Set<String> authorIds = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] == null) {
+                authorIds.add(authorIdOf(chunk.get(i), userId));
+            }
+        }
+        Map<String, User> authors = authorLoader.loadAll(authorIds);
+        
+        List<Question> questions = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            User author = authors.get(authorIdOf(chunk.get(i), userId));
+            if (author == null) {
+                errors[i] = "User not found";
+                continue;
+            }
+            questions.add(toQuestion(chunk.get(i), author));
+            positions.add(i);
+        }
+        
+        Map<Integer, String> insertErrors = questionRepository.insertUnordered(questions);
+        String[] ids = new String[chunk.size()];
+        for (int q = 0; q < questions.size(); q++) {
+            int i = positions.get(q);
+            String insertError = insertErrors.get(q);
+            if (insertError != null) {
+                errors[i] = insertError;
+            } else {
+                ids[i] = questions.get(q).getId();
+                facetCounters.questionCreated(questions.get(q));
+                eventPublisher.publishEvent(QuestionChangedEvent.created(questions.get(q)));
+            }
+        }
+        
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors[i] != null) {
+                report.failed(firstIndex + i, errors[i]);
+            } else {
+                report.succeeded(firstIndex + i, ids[i]);
+            }
+        }
+    }
+    
+    private String validate(ImportQuestionRequest request, String userId) {
+        Set<ConstraintViolation<ImportQuestionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted()
+                .collect(Collectors.joining(", "));
+        }
+        if (!allowAuthorOverride && !userId.equals(authorIdOf(request, userId))) {
+            return "Importing questions for other authors is not allowed";
+        }
+        return null;
+    }
+    
+    private static String authorIdOf(ImportQuestionRequest request, String userId) {
+        return request.getAuthorId() != null ? request.getAuthorId() : userId;
+    }
+    
+    private Question toQuestion(ImportQuestionRequest request, User author) {
+        LocalDateTime createdAt = request.getCreatedAt() != null ? request.getCreatedAt() : LocalDateTime.now();
+        
+        Question question = new Question();
+        question.setId(new ObjectId().toHexString());
+        question.setTitle(request.getTitle());
+        question.setContent(request.getContent());
+        question.setSnippet(QuestionSummary.snippetOf(request.getContent()));
+        question.setCategory(request.getCategory().toLowerCase());
+        question.setAuthor(author);
+        question.setAuthorSnapshot(authorLoader.snapshotOf(author));
+        question.setTags(QuestionService.normalizeTags(request.getTags()));
+        question.setUpvotes(0);
+        question.setAnswerCount(0);
+        question.setCreatedAt(createdAt);
+        question.setUpdatedAt(createdAt);
+        return question;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mentorlink.service;
+
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mentorlink.entity.QuestionTombstone;
+import com.mentorlink.entity.QuestionVote;
+import com.mentorlink.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Creates the indexes declared on the forum entities (automatic index
+ * creation is off by default) and, once the application is up, checks the
+ * query plan of every QuestionRepository query shape the service issues.
+ *
+ * A plan containing a collection scan or a blocking in-memory sort means an
+ * index is missing. forum.indexes.verify decides what happens then: warn
+ * (default) logs each offending shape, fail stops startup, off skips the check.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionIndexes {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionIndexes.class);
+    
+    private static final int SAMPLE_LIMIT = 20;
+    
+    private final MongoTemplate mongoTemplate;
+    private final QuestionRepository questionRepository;
+    
+    @Value("${forum.indexes.verify:warn}")
+    private String verifyMode;
+    
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : List.of(Question.class, Answer.class, QuestionVote.class, QuestionTombstone.class)) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(indexOps::ensureIndex);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if ("off".equalsIgnoreCase(verifyMode)) {
+            return;
+        }
+        
+        Map<String, Supplier<Document>> shapes = queryShapes();
+        List<String> problems = new ArrayList<>();
+        shapes.forEach((shape, explain) -> {
+            Set<String> stages = new LinkedHashSet<>();
+            try {
+                Document plan = explain.get();
+                Document queryPlanner = plan.get("queryPlanner", Document.class);
+                collectStages(queryPlanner != null ? queryPlanner.get("winningPlan") : null, stages);
+            } catch (Exception e) {
+                logger.warn("Could not explain query shape '{}': {}", shape, e.getMessage());
+                return;
+            }
+            if (stages.contains("COLLSCAN")) {
+                problems.add(shape + ": collection scan");
+            }
+            if (stages.contains("SORT")) {
+                problems.add(shape + ": blocking in-memory sort");
+            }
+        });
+        
+        if (problems.isEmpty()) {
+            logger.info("Verified query plans of {} question query shapes", shapes.size());
+            return;
+        }
+        if ("fail".equalsIgnoreCase(verifyMode)) {
+            throw new IllegalStateException("Question queries without a supporting index: " + problems);
+        }
+        problems.forEach(problem -> logger.warn("Question query without a supporting index - {}", problem));
+    }
+    
+    /**
+     * Every filter/sort combination QuestionService sends through the
+     * summary page and keyset slice queries, with sample values
+     */
+    private Map<String, Supplier<Document>> queryShapes() {
+        Map<String, Criteria> filters = new LinkedHashMap<>();
+        filters.put("all", new Criteria());
+        filters.put("category", QuestionService.categoryCriteria("general"));
+        filters.put("author", QuestionService.authorCriteria(new ObjectId().toHexString()));
+        filters.put("all tags", QuestionService.tagCriteria(List.of("sample", "other"), true));
+        filters.put("any tag", QuestionService.tagCriteria(List.of("sample", "other"), false));
+        filters.put("search in category", QuestionService.textCriteria("sample", "general"));
+        
+        // Listings that take a sort parameter; the rest are newest first only
+        Set<String> sortable = Set.of("all", "all tags", "any tag");
+        
+        Map<String, Supplier<Document>> shapes = new LinkedHashMap<>();
+        filters.forEach((name, filter) -> {
+            List<String> fields = sortable.contains(name)
+                ? List.of("createdAt", "updatedAt", "upvotes") : List.of("createdAt");
+            for (String field : fields) {
+                shapes.put(name + " page by -" + field, () -> questionRepository.explainSummaryPage(filter,
+                    PageRequest.of(1, SAMPLE_LIMIT, Sort.by(Sort.Direction.DESC, field))));
+                shapes.put(name + " slice by -" + field, () -> questionRepository.explainSummarySlice(filter,
+                    Sort.Direction.DESC, field, sampleCursor(field), SAMPLE_LIMIT + 1));
+            }
+        });
+        return shapes;
+    }
+    
+    private static QuestionCursor sampleCursor(String field) {
+        QuestionSummary last = new QuestionSummary();
+        last.setId(new ObjectId().toHexString());
+        last.setCreatedAt(LocalDateTime.now());
+        last.setUpdatedAt(LocalDateTime.now());
+        last.setUpvotes(0);
+        return QuestionCursor.after(field, last);
+    }
+    
+    /**
+     * Stage names anywhere in a plan tree (inputStage, inputStages, shards,
+     * queryPlan, ...)
+     */
+    private static void collectStages(Object node, Set<String> stages) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            Object stage = document.get("stage");
+            if (stage instanceof String) {
+                stages.add((String) stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List) {
+            ((List<?>) node).forEach(value -> collectStages(value, stages));
+        }
+    }
+}
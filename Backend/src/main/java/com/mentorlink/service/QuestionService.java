@@ -1,162 +1,875 @@
 package com.mentorlink.service;
 
+import com.mentorlink.cache.QuestionCache;
 import com.mentorlink.dto.AddAnswerRequest;
+import com.mentorlink.dto.AnswerDelta;
 import com.mentorlink.dto.CreateQuestionRequest;
+import com.mentorlink.dto.CursorPage;
+import com.mentorlink.dto.FacetCount;
+import com.mentorlink.dto.ForumFacets;
+import com.mentorlink.dto.ImportReport;
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionDelta;
+import com.mentorlink.dto.QuestionSummary;
 import com.mentorlink.dto.UpdateQuestionRequest;
 import com.mentorlink.entity.Answer;
 import com.mentorlink.entity.Question;
+import com.mentorlink.entity.QuestionTombstone;
+import com.mentorlink.entity.QuestionVote;
 import com.mentorlink.entity.User;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.facet.FacetCounters;
+import com.mentorlink.push.QuestionEventBroadcaster;
+import com.mentorlink.repository.AnswerRepository;
 import com.mentorlink.repository.QuestionRepository;
-import com.mentorlink.repository.UserRepository;
+import com.mentorlink.repository.QuestionTombstoneRepository;
+import com.mentorlink.repository.QuestionVoteRepository;
+import com.mentorlink.search.QuestionSearchIndex;
+import com.mentorlink.search.SearchResult;
+import com.mentorlink.trending.TrendingIndex;
+import com.mentorlink.writebehind.WriteBehindQueue;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Service
 @RequiredArgsConstructor
 public class QuestionService {
     
+    /** Version-conflict retries of one edit before giving up */
+    private static final int EDIT_ATTEMPTS = 5;
+    
+    /** Largest page, slice or answer page a caller may ask for */
+    public static final int MAX_LIMIT = 100;
+    
+    /** Search results past this many hits are not served */
+    public static final int MAX_SEARCH_OFFSET = 10_000;
+    
     private final QuestionRepository questionRepository;
-    private final UserRepository userRepository;
+    private final AnswerRepository answerRepository;
+    private final AuthorLoader authorLoader;
+    private final QuestionCache questionCache;
+    private final QuestionVoteRepository questionVoteRepository;
+    private final QuestionTombstoneRepository tombstoneRepository;
+    private final VoteAccumulator voteAccumulator;
+    private final QuestionSearchIndex searchIndex;
+    private final TrendingIndex trendingIndex;
+    private final FacetCounters facetCounters;
+    private final QuestionExporter questionExporter;
+    private final QuestionImporter questionImporter;
+    private final QuestionEventBroadcaster eventBroadcaster;
+    private final WriteBehindQueue writeBehind;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${forum.search.engine:index}")
+    private String searchEngine;
+    
+    @Value("${forum.answers.storage:embedded}")
+    private String answerStorage;
+    
+    @Value("${forum.answers.inline-limit:20}")
+    private int inlineAnswerLimit;
+    
+    @Value("${forum.sync.overlap-ms:5000}")
+    private long syncOverlapMs;
     
     /**
      * Get all questions with pagination and sorting
      */
-    public Page<Question> getAllQuestions(int page, int limit, String sort) {
+    @Timed(value = "forum.service", histogram = true)
+    public Page<QuestionSummary> getAllQuestions(int page, int limit, String sort) {
+        requireLimit(limit);
         Sort.Direction direction = sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
         String field = sort.replace("-", "");
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, field));
-        return questionRepository.findAll(pageable);
+        LongSupplier total = total(new Criteria(), facetCounters.questionCount());
+        if (page == 1) {
+            return questionCache.getFirstPage(null, sort, limit,
+                () -> withAuthors(questionRepository.findSummaryPage(new Criteria(), pageable, total)));
+        }
+        return withAuthors(questionRepository.findSummaryPage(new Criteria(), pageable, total));
     }
     
     /**
-     * Get single question by ID
+     * Version tag of the question listings, for ETags. It changes whenever a
+     * question is created, edited, answered, voted on or deleted, on this
+     * node or, once the invalidation arrives, on another; see
+     * {@link QuestionCache#listingVersion()}.
      */
+    public String getListingVersion() {
+        return questionCache.listingVersion();
+    }
+    
+    /**
+     * Version tag of one question as returned by {@link #getQuestionById}, for
+     * ETags: its revision, which every write to the question increments,
+     * including author snapshot rewrites of it or its answers
+     */
+    public String getQuestionVersion(Question question) {
+        return question.getId() + "-" + Long.toHexString(question.getVersion() != null ? question.getVersion() : 0);
+    }
+    
+    /**
+     * Questions created or changed (edited, answered, voted on) after since
+     * (epoch millis), oldest change first, plus the ids of questions deleted
+     * since then. The returned syncedAt lags the current time by the sync
+     * overlap, so writes that were in flight during this call are picked up
+     * by the next one; clients dedupe by id.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public QuestionDelta getQuestionsSince(long since, String cursor, int limit) {
+        long startedAt = System.currentTimeMillis();
+        long syncedAt = Math.max(since, startedAt - syncOverlapMs());
+        LocalDateTime sinceTime = toLocalDateTime(since);
+        if (sinceTime.isBefore(LocalDateTime.now().minusDays(QuestionTombstone.RETENTION_DAYS))) {
+            return new QuestionDelta(List.of(), List.of(), null, syncedAt, true);
+        }
+        
+        CursorPage<QuestionSummary> changed = slice(where("updatedAt").gt(sinceTime), Sort.Direction.ASC,
+            "updatedAt", cursor, limit, null);
+        
+        List<String> deleted = new ArrayList<>();
+        if (cursor == null || cursor.isEmpty()) {
+            tombstoneRepository.findByDeletedAtAfter(sinceTime).forEach(tombstone -> deleted.add(tombstone.getId()));
+        }
+        return new QuestionDelta(changed.getItems(), deleted, changed.getNextCursor(), syncedAt, false);
+    }
+    
+    /**
+     * Trending questions, overall or within one category. Served from the
+     * in-memory trending ranking without querying Mongo.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public List<QuestionSummary> getTrendingQuestions(String category, int limit) {
+        return trendingIndex.top(category, limit);
+    }
+    
+    /**
+     * Question and answer counts overall, per category and for the tagLimit
+     * most used tags, plus one mentor's counts when mentorId is given.
+     * Served from the in-memory facet counters.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public ForumFacets getFacets(int tagLimit, String mentorId) {
+        if (!facetCounters.isReady()) {
+            throw new RuntimeException("Facet counts are not available yet");
+        }
+        FacetCount total = facetCounters.total();
+        FacetCount mentor = mentorId != null && !mentorId.isEmpty()
+            ? facetCounters.count(FacetCounters.Facet.AUTHOR, mentorId) : null;
+        return new ForumFacets(total.getQuestions(), total.getAnswers(),
+            facetCounters.top(FacetCounters.Facet.CATEGORY, Integer.MAX_VALUE),
+            facetCounters.top(FacetCounters.Facet.TAG, tagLimit),
+            mentor, facetCounters.getReconciledAt());
+    }
+    
+    /**
+     * Get single question by ID, through the question cache. When answers live
+     * in their own collection, only the first page of answers is inlined.
+     */
+    @Timed(value = "forum.service", histogram = true)
     public Question getQuestionById(String id) {
-        return questionRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Question not found"));
+        return questionCache.getQuestion(id, this::loadQuestion);
+    }
+    
+    /**
+     * Load a question with its (first page of) answers and resolved authors,
+     * bypassing the cache
+     */
+    private Question loadQuestion(String id) {
+        Question question = findQuestion(id);
+        if (storesAnswersInCollection()) {
+            Pageable firstAnswers = PageRequest.of(0, inlineAnswerLimit, Sort.by(Sort.Direction.ASC, "createdAt"));
+            question.setAnswers(new ArrayList<>(answerRepository.findByQuestionId(id, firstAnswers)));
+        }
+        return authorLoader.hydrate(question);
+    }
+    
+    /**
+     * Load a question without resolving its author references. With
+     * write-behind, a question whose create is not flushed yet is found too.
+     */
+    private Question findQuestion(String id) {
+        Optional<Question> question = questionRepository.findById(id);
+        if (question.isEmpty() && writeBehind.isEnabled()) {
+            question = Optional.ofNullable(writeBehind.pendingCreate(id));
+        }
+        return question.orElseThrow(() -> new RuntimeException("Question not found"));
+    }
+    
+    /**
+     * Open a server-sent event stream of one question's changes
+     */
+    public SseEmitter subscribeToQuestion(String id) {
+        return eventBroadcaster.subscribeQuestion(findQuestion(id));
+    }
+    
+    /**
+     * Open a server-sent event stream of the changes in one category
+     */
+    public SseEmitter subscribeToCategory(String category) {
+        return eventBroadcaster.subscribeCategory(category);
     }
     
     /**
      * Create a new question
      */
+    @Timed(value = "forum.service", histogram = true)
     public Question createQuestion(CreateQuestionRequest request, String userId) {
-        User author = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User author = authorLoader.load(userId);
         
         Question question = new Question();
         question.setTitle(request.getTitle());
         question.setContent(request.getContent());
+        question.setSnippet(QuestionSummary.snippetOf(request.getContent()));
         question.setCategory(request.getCategory().toLowerCase());
         question.setAuthor(author);
-        question.setTags(request.getTags());
+        question.setAuthorSnapshot(authorLoader.snapshotOf(author));
+        question.setTags(normalizeTags(request.getTags()));
         question.setUpvotes(0);
+        question.setAnswerCount(0);
         question.setCreatedAt(LocalDateTime.now());
         question.setUpdatedAt(LocalDateTime.now());
         
-        return questionRepository.save(question);
+        if (writeBehind.isEnabled()) {
+            question.setId(new ObjectId().toHexString());
+            writeBehind.create(question);
+            facetCounters.questionCreated(question);
+            return question;
+        }
+        
+        Question saved = questionRepository.save(question);
+        facetCounters.questionCreated(saved);
+        eventPublisher.publishEvent(QuestionChangedEvent.created(saved));
+        return saved;
     }
     
     /**
-     * Update an existing question
+     * Bulk-create questions from a streamed JSON array, reporting the outcome
+     * of every item
      */
+    @Timed(value = "forum.service", histogram = true)
+    public ImportReport importQuestions(InputStream body, String userId) {
+        return questionImporter.importQuestions(body, userId);
+    }
+    
+    /**
+     * Update an existing question. Only the edited fields are written, as a
+     * $set guarded by the question's version, so answers and votes landing
+     * in between are kept; on a version conflict the edit fields are re-read
+     * (never the answers) and the update retried. The returned question
+     * carries no answers.
+     */
+    @Timed(value = "forum.service", histogram = true)
     public Question updateQuestion(String id, UpdateQuestionRequest request, String userId) {
-        Question question = getQuestionById(id);
+        if (writeBehind.isEnabled()) {
+            return updateQuestionWriteBehind(id, request, userId);
+        }
+        
+        String category = request.getCategory().toLowerCase();
+        for (int attempt = 0; attempt < EDIT_ATTEMPTS; attempt++) {
+            Question current = questionRepository.findForEdit(id);
+            if (current == null) {
+                throw new RuntimeException("Question not found");
+            }
+            
+            // Check if user is the author
+            if (!userId.equals(AuthorLoader.idOf(current.getAuthor()))) {
+                throw new RuntimeException("You can only update your own questions");
+            }
+            
+            Map<String, Object> changes = new LinkedHashMap<>();
+            if (!Objects.equals(current.getTitle(), request.getTitle())) {
+                changes.put("title", request.getTitle());
+            }
+            if (!Objects.equals(current.getContent(), request.getContent())) {
+                changes.put("content", request.getContent());
+                changes.put("snippet", QuestionSummary.snippetOf(request.getContent()));
+            }
+            if (!Objects.equals(current.getCategory(), category)) {
+                changes.put("category", category);
+            }
+            if (changes.isEmpty()) {
+                Question unchanged = questionRepository.findWithoutAnswers(id);
+                if (unchanged == null) {
+                    throw new RuntimeException("Question not found");
+                }
+                return authorLoader.hydrate(unchanged);
+            }
+            changes.put("updatedAt", LocalDateTime.now());
+            
+            Question updated = questionRepository.updateIfVersion(id, current.getVersion(), changes);
+            if (updated != null) {
+                if (changes.containsKey("category")) {
+                    facetCounters.categoryChanged(current.getCategory(), category, updated.getAnswerCount());
+                }
+                eventPublisher.publishEvent(QuestionChangedEvent.updated(updated));
+                return authorLoader.hydrate(updated);
+            }
+        }
+        throw new RuntimeException("Question is being modified concurrently, please try again");
+    }
+    
+    private Question updateQuestionWriteBehind(String id, UpdateQuestionRequest request, String userId) {
+        Question question = findQuestion(id);
         
         // Check if user is the author
-        if (!question.getAuthor().getId().equals(userId)) {
+        if (!userId.equals(AuthorLoader.idOf(question.getAuthor()))) {
             throw new RuntimeException("You can only update your own questions");
         }
         
+        String previousCategory = question.getCategory();
         question.setTitle(request.getTitle());
         question.setContent(request.getContent());
+        question.setSnippet(QuestionSummary.snippetOf(request.getContent()));
         question.setCategory(request.getCategory().toLowerCase());
         question.setUpdatedAt(LocalDateTime.now());
         
-        return questionRepository.save(question);
+        writeBehind.update(id, question.getTitle(), question.getContent(), question.getCategory(),
+            question.getUpdatedAt());
+        facetCounters.categoryChanged(previousCategory, question.getCategory(), question.getAnswerCount());
+        question.setAnswers(new ArrayList<>());
+        return authorLoader.hydrate(question);
     }
     
     /**
      * Delete a question
      */
+    @Timed(value = "forum.service", histogram = true)
     public void deleteQuestion(String id, String userId) {
-        Question question = getQuestionById(id);
+        Question question = findQuestion(id);
         
         // Check if user is the author
-        if (!question.getAuthor().getId().equals(userId)) {
+        if (!userId.equals(AuthorLoader.idOf(question.getAuthor()))) {
             throw new RuntimeException("You can only delete your own questions");
         }
         
+        if (writeBehind.isEnabled()) {
+            writeBehind.delete(id);
+            facetCounters.questionDeleted(question);
+            return;
+        }
+        
         questionRepository.deleteById(id);
+        questionVoteRepository.deleteByQuestionId(id);
+        answerRepository.deleteByQuestionId(id);
+        facetCounters.questionDeleted(question);
+        eventPublisher.publishEvent(QuestionChangedEvent.deleted(id));
     }
     
     /**
      * Add an answer to a question
      */
+    @Timed(value = "forum.service", histogram = true)
     public Question addAnswer(String questionId, AddAnswerRequest request, String userId) {
-        Question question = getQuestionById(questionId);
-        User author = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User author = authorLoader.load(userId);
         
         Answer answer = new Answer();
         answer.setId(new ObjectId().toString());
         answer.setContent(request.getContent());
         answer.setAuthor(author);
+        answer.setAuthorSnapshot(authorLoader.snapshotOf(author));
         answer.setUpvotes(0);
         answer.setCreatedAt(LocalDateTime.now());
         answer.setUpdatedAt(LocalDateTime.now());
         
-        question.getAnswers().add(answer);
-        question.setUpdatedAt(LocalDateTime.now());
+        if (writeBehind.isEnabled()) {
+            Question question = findQuestion(questionId);
+            if (storesAnswersInCollection()) {
+                answer.setQuestionId(questionId);
+            }
+            writeBehind.addAnswer(questionId, answer);
+            question.getAnswers().add(answer);
+            question.setAnswerCount(question.getAnswerCount() + 1);
+            question.setUpdatedAt(answer.getCreatedAt());
+            facetCounters.answerAdded(question, answer);
+            return authorLoader.hydrate(question);
+        }
+        
+        boolean added;
+        if (storesAnswersInCollection()) {
+            if (!questionRepository.existsById(questionId)) {
+                throw new RuntimeException("Question not found");
+            }
+            answer.setQuestionId(questionId);
+            answerRepository.insert(answer);
+            added = questionRepository.incrementAnswerCount(questionId);
+        } else {
+            added = questionRepository.pushAnswer(questionId, answer);
+        }
+        if (!added) {
+            throw new RuntimeException("Question not found");
+        }
         
-        return questionRepository.save(question);
+        Question question = loadQuestion(questionId);
+        facetCounters.answerAdded(question, answer);
+        eventPublisher.publishEvent(QuestionChangedEvent.answerAdded(question, answer));
+        return question;
     }
     
     /**
-     * Upvote a question
+     * Get one page of a question's answers, oldest first
      */
-    public Question upvoteQuestion(String id, String userId) {
-        Question question = getQuestionById(id);
-        question.setUpvotes(question.getUpvotes() + 1);
-        question.setUpdatedAt(LocalDateTime.now());
-        return questionRepository.save(question);
+    @Timed(value = "forum.service", histogram = true)
+    public Page<Answer> getAnswers(String questionId, int page, int limit) {
+        requireLimit(limit);
+        Integer total = questionRepository.findAnswerCount(questionId);
+        if (total == null) {
+            throw new RuntimeException("Question not found");
+        }
+        
+        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.ASC, "createdAt"));
+        List<Answer> answers = storesAnswersInCollection()
+            ? answerRepository.findByQuestionId(questionId, pageable)
+            : questionRepository.findEmbeddedAnswers(questionId, (int) pageable.getOffset(), limit);
+        
+        authorLoader.hydrateAnswers(answers);
+        return new PageImpl<>(answers, pageable, total);
+    }
+    
+    /**
+     * Answers added to a question after since (epoch millis), oldest first
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public AnswerDelta getAnswersSince(String questionId, long since) {
+        long startedAt = System.currentTimeMillis();
+        Integer total = questionRepository.findAnswerCount(questionId);
+        if (total == null) {
+            throw new RuntimeException("Question not found");
+        }
+        
+        LocalDateTime sinceTime = toLocalDateTime(since);
+        List<Answer> answers;
+        if (storesAnswersInCollection()) {
+            answers = answerRepository.findByQuestionIdAndCreatedAtAfterOrderByCreatedAtAsc(questionId, sinceTime);
+        } else {
+            answers = new ArrayList<>();
+            for (Answer answer : questionRepository.findEmbeddedAnswers(questionId, 0, Math.max(total, 1))) {
+                if (answer.getCreatedAt() != null && answer.getCreatedAt().isAfter(sinceTime)) {
+                    answers.add(answer);
+                }
+            }
+        }
+        
+        authorLoader.hydrateAnswers(answers);
+        return new AnswerDelta(answers, Math.max(since, startedAt - syncOverlapMs()));
+    }
+    
+    private boolean storesAnswersInCollection() {
+        return "collection".equalsIgnoreCase(answerStorage);
+    }
+    
+    /**
+     * How far delta syncs look back: forum.sync.overlap-ms, but at least as
+     * long as write-behind may hold a mutation (stamped when it was
+     * accepted) before it reaches Mongo
+     */
+    private long syncOverlapMs() {
+        return Math.max(syncOverlapMs, writeBehind.maxFlushDelayMs());
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    /**
+     * Upvote a question. Each user counts once; repeated votes are ignored.
+     * Returns the question's upvote count including any buffered votes. If
+     * the vote cannot be counted, the user's vote record is removed again so
+     * they can retry.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public int upvoteQuestion(String id, String userId) {
+        int current = currentUpvotes(id);
+        QuestionVote vote = recordVote(id, userId);
+        if (vote == null) {
+            return current;
+        }
+        
+        Integer upvotes;
+        try {
+            if (writeBehind.isEnabled()) {
+                writeBehind.upvote(id, 1);
+                return current + 1;
+            }
+            if (voteAccumulator.isEnabled()) {
+                voteAccumulator.add(id, 1);
+                return current + 1;
+            }
+            
+            upvotes = questionRepository.incrementUpvotes(id, 1);
+            if (upvotes == null) {
+                throw new RuntimeException("Question not found");
+            }
+        } catch (RuntimeException e) {
+            withdrawVote(vote, e);
+            throw e;
+        }
+        eventPublisher.publishEvent(QuestionChangedEvent.upvoted(id, 1));
+        return upvotes;
+    }
+    
+    /**
+     * Store the user's vote, returning null if they already voted
+     */
+    private QuestionVote recordVote(String questionId, String userId) {
+        try {
+            return questionVoteRepository.insert(
+                new QuestionVote(null, questionId, userId, LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+    
+    private void withdrawVote(QuestionVote vote, RuntimeException cause) {
+        try {
+            questionVoteRepository.deleteById(vote.getId());
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+    
+    private int currentUpvotes(String id) {
+        Integer upvotes = questionRepository.findUpvotes(id);
+        if (writeBehind.isEnabled()) {
+            if (upvotes == null) {
+                Question pending = writeBehind.pendingCreate(id);
+                if (pending == null) {
+                    throw new RuntimeException("Question not found");
+                }
+                return pending.getUpvotes();
+            }
+            return upvotes + writeBehind.pendingUpvotes(id);
+        }
+        if (upvotes == null) {
+            throw new RuntimeException("Question not found");
+        }
+        return upvotes + (int) voteAccumulator.pending(id);
     }
     
     /**
      * Get questions by category
      */
-    public Page<Question> getQuestionsByCategory(String category, int page, int limit) {
+    @Timed(value = "forum.service", histogram = true)
+    public Page<QuestionSummary> getQuestionsByCategory(String category, int page, int limit) {
+        requireLimit(limit);
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return questionRepository.findByCategory(category.toLowerCase(), pageable);
+        LongSupplier total = total(categoryCriteria(category),
+            facetCounters.questionCount(FacetCounters.Facet.CATEGORY, category.toLowerCase()));
+        if (page == 1) {
+            return questionCache.getFirstPage(category.toLowerCase(), "-createdAt", limit,
+                () -> withAuthors(questionRepository.findSummaryPage(categoryCriteria(category), pageable, total)));
+        }
+        return withAuthors(questionRepository.findSummaryPage(categoryCriteria(category), pageable, total));
+    }
+    
+    /**
+     * Get questions carrying all of the given tags (or, unless matchAll, any
+     * of them), sorted like the unfiltered listing
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public Page<QuestionSummary> getQuestionsByTags(List<String> tags, boolean matchAll, int page, int limit,
+                                                    String sort) {
+        requireLimit(limit);
+        String field = tagSortField(sort);
+        Sort.Direction direction = sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(direction, field));
+        Criteria filter = tagCriteria(tags, matchAll);
+        return withAuthors(questionRepository.findSummaryPage(filter, pageable, tagTotal(filter, tags)));
+    }
+    
+    /**
+     * Suggest tags starting with prefix, most used first. Served from the
+     * in-memory facet counters.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public List<FacetCount> suggestTags(String prefix, int limit) {
+        return facetCounters.suggestTags(prefix.trim().toLowerCase(), limit);
+    }
+    
+    /**
+     * Stream questions as NDJSON, optionally limited to one category and/or
+     * author. Returns the number of questions written.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public long exportQuestions(String category, String authorId, OutputStream out) throws IOException {
+        List<Criteria> filters = new ArrayList<>();
+        if (category != null && !category.isEmpty()) {
+            filters.add(categoryCriteria(category));
+        }
+        if (authorId != null && !authorId.isEmpty()) {
+            filters.add(authorCriteria(authorId));
+        }
+        Criteria filter = filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+        return questionExporter.export(filter, out);
     }
     
     /**
      * Get questions by mentor/author
      */
-    public Page<Question> getQuestionsByMentor(String mentorId, int page, int limit) {
+    @Timed(value = "forum.service", histogram = true)
+    public Page<QuestionSummary> getQuestionsByMentor(String mentorId, int page, int limit) {
+        requireLimit(limit);
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        return questionRepository.findByAuthorId(mentorId, pageable);
+        LongSupplier total = total(authorCriteria(mentorId),
+            facetCounters.questionCount(FacetCounters.Facet.AUTHOR, mentorId));
+        return withAuthors(questionRepository.findSummaryPage(authorCriteria(mentorId), pageable, total));
     }
     
     /**
-     * Search questions by title and content
+     * Search questions by title and content, optionally within one category.
+     * Uses the in-memory search index when it is enabled and built, otherwise
+     * a regex query against Mongo.
      */
-    public Page<Question> searchQuestions(String query, String category, int page, int limit) {
+    @Timed(value = "forum.service", histogram = true)
+    public Page<QuestionSummary> searchQuestions(String query, String category, int page, int limit) {
+        requireLimit(limit);
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        requireSearchOffset(pageable.getOffset());
         
-        if (category != null && !category.isEmpty()) {
-            return questionRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
-                query, query, pageable);
+        String categoryFilter = category != null && !category.isEmpty() ? category.toLowerCase() : null;
+        
+        if (useSearchIndex()) {
+            SearchResult result = searchIndex.search(query, categoryFilter, (int) pageable.getOffset(), limit);
+            return new PageImpl<>(findSummariesInOrder(result.getIds()), pageable, result.getTotal());
         }
         
-        return questionRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
-            query, query, pageable);
+        return withAuthors(questionRepository.findSummaryPage(textCriteria(query, categoryFilter), pageable));
+    }
+    
+    /**
+     * Keyset-paginated listing of all questions. {@code cursor} is the
+     * nextCursor of the previous slice, or empty for the first slice.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public CursorPage<QuestionSummary> getAllQuestions(String cursor, int limit, String sort, boolean includeTotal) {
+        Sort.Direction direction = sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String field = sort.replace("-", "");
+        return slice(new Criteria(), direction, field, cursor, limit,
+            includeTotal ? total(new Criteria(), facetCounters.questionCount()) : null);
+    }
+    
+    /**
+     * Keyset-paginated questions in a category, newest first
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public CursorPage<QuestionSummary> getQuestionsByCategory(String category, String cursor, int limit,
+                                                              boolean includeTotal) {
+        return slice(categoryCriteria(category), Sort.Direction.DESC, "createdAt", cursor, limit,
+            includeTotal ? total(categoryCriteria(category),
+                facetCounters.questionCount(FacetCounters.Facet.CATEGORY, category.toLowerCase())) : null);
+    }
+    
+    /**
+     * Keyset-paginated questions by mentor/author, newest first
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public CursorPage<QuestionSummary> getQuestionsByMentor(String mentorId, String cursor, int limit,
+                                                            boolean includeTotal) {
+        return slice(authorCriteria(mentorId), Sort.Direction.DESC, "createdAt", cursor, limit,
+            includeTotal ? total(authorCriteria(mentorId),
+                facetCounters.questionCount(FacetCounters.Facet.AUTHOR, mentorId)) : null);
+    }
+    
+    /**
+     * Keyset-paginated questions by tags, sorted like the unfiltered listing
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public CursorPage<QuestionSummary> getQuestionsByTags(List<String> tags, boolean matchAll, String cursor,
+                                                          int limit, String sort, boolean includeTotal) {
+        String field = tagSortField(sort);
+        Sort.Direction direction = sort.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Criteria filter = tagCriteria(tags, matchAll);
+        return slice(filter, direction, field, cursor, limit,
+            includeTotal ? tagTotal(filter, tags) : null);
+    }
+    
+    /**
+     * Cursor-paginated search. Index results are ranked, so their cursor is an
+     * offset into the ranking; regex results are keyset-paginated by createdAt.
+     */
+    @Timed(value = "forum.service", histogram = true)
+    public CursorPage<QuestionSummary> searchQuestions(String query, String category, String cursor,
+                                                       int limit, boolean includeTotal) {
+        requireLimit(limit);
+        String categoryFilter = category != null && !category.isEmpty() ? category.toLowerCase() : null;
+        
+        if (useSearchIndex()) {
+            int offset = cursor == null || cursor.isEmpty()
+                ? 0 : QuestionCursor.decode(cursor, QuestionCursor.RANK).getOffset();
+            requireSearchOffset(offset);
+            SearchResult result = searchIndex.search(query, categoryFilter, offset, limit);
+            String nextCursor = offset + limit < result.getTotal() && offset + limit <= MAX_SEARCH_OFFSET
+                ? QuestionCursor.offset(offset + limit).encode() : null;
+            return new CursorPage<>(findSummariesInOrder(result.getIds()), nextCursor,
+                includeTotal ? result.getTotal() : null);
+        }
+        
+        Criteria filter = textCriteria(query, categoryFilter);
+        return slice(filter, Sort.Direction.DESC, "createdAt", cursor, limit,
+            includeTotal ? () -> questionRepository.countMatching(filter) : null);
+    }
+    
+    /**
+     * One keyset slice; {@code total} is null when the caller did not ask
+     * for a total
+     */
+    private CursorPage<QuestionSummary> slice(Criteria filter, Sort.Direction direction, String field,
+                                              String cursor, int limit, LongSupplier total) {
+        if (!QuestionCursor.isSortable(field)) {
+            throw new RuntimeException("Cursor pagination is not supported for sort field: " + field);
+        }
+        requireLimit(limit);
+        
+        QuestionCursor after = cursor == null || cursor.isEmpty() ? null : QuestionCursor.decode(cursor, field);
+        List<QuestionSummary> summaries = questionRepository.findSummarySlice(filter, direction, field, after, limit + 1);
+        
+        String nextCursor = null;
+        if (summaries.size() > limit) {
+            summaries = new ArrayList<>(summaries.subList(0, limit));
+            nextCursor = QuestionCursor.after(field, summaries.get(limit - 1)).encode();
+        }
+        
+        return new CursorPage<>(authorLoader.attach(summaries), nextCursor,
+            total != null ? total.getAsLong() : null);
+    }
+    
+    private static void requireLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+    
+    private static void requireSearchOffset(long offset) {
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("Search results are only available up to " + MAX_SEARCH_OFFSET
+                + " hits; narrow the query");
+        }
+    }
+    
+    /**
+     * Total for a listing: the facet count when the counters are ready,
+     * otherwise a count query
+     */
+    private LongSupplier total(Criteria filter, Long counted) {
+        return counted != null ? () -> counted : () -> questionRepository.countMatching(filter);
+    }
+    
+    static Criteria categoryCriteria(String category) {
+        return where("category").is(category.toLowerCase());
+    }
+    
+    /**
+     * Questions with all of tags when matchAll, otherwise with any of them
+     */
+    static Criteria tagCriteria(List<String> tags, boolean matchAll) {
+        List<String> normalized = normalizeTags(tags);
+        if (normalized.isEmpty()) {
+            throw new RuntimeException("At least one tag is required");
+        }
+        return matchAll ? where("tags").all(normalized) : where("tags").in(normalized);
+    }
+    
+    /**
+     * Trimmed, lowercased and deduplicated tags, in their original order
+     */
+    static List<String> normalizeTags(List<String> tags) {
+        List<String> normalized = new ArrayList<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                String value = tag != null ? tag.trim().toLowerCase() : "";
+                if (!value.isEmpty() && !normalized.contains(value)) {
+                    normalized.add(value);
+                }
+            }
+        }
+        return normalized;
+    }
+    
+    /**
+     * Sort field of a tag listing; each one has a {tags, field, _id} index
+     */
+    private static String tagSortField(String sort) {
+        String field = sort.replace("-", "");
+        if (!QuestionCursor.isSortable(field)) {
+            throw new IllegalArgumentException("Unsupported sort field for tag listings: " + field);
+        }
+        return field;
+    }
+    
+    private LongSupplier tagTotal(Criteria filter, List<String> tags) {
+        List<String> normalized = normalizeTags(tags);
+        return total(filter, normalized.size() == 1
+            ? facetCounters.questionCount(FacetCounters.Facet.TAG, normalized.get(0)) : null);
+    }
+    
+    static Criteria authorCriteria(String authorId) {
+        return where("author.$id").is(ObjectId.isValid(authorId) ? new ObjectId(authorId) : authorId);
+    }
+    
+    /**
+     * Case-insensitive substring match on title or content. The category
+     * equality comes first so the {category, createdAt} index narrows the
+     * documents the regex has to run over.
+     */
+    static Criteria textCriteria(String query, String category) {
+        Pattern pattern = Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE);
+        Criteria text = new Criteria().orOperator(where("title").regex(pattern), where("content").regex(pattern));
+        return category != null ? new Criteria().andOperator(where("category").is(category), text) : text;
+    }
+    
+    private boolean useSearchIndex() {
+        return "index".equalsIgnoreCase(searchEngine) && searchIndex.isReady();
+    }
+    
+    /**
+     * Load summaries by id, keeping the order of the given ids
+     */
+    private List<QuestionSummary> findSummariesInOrder(List<String> ids) {
+        Map<String, QuestionSummary> byId = new HashMap<>();
+        questionRepository.findSummariesByIds(ids).forEach(summary -> byId.put(summary.getId(), summary));
+        
+        List<QuestionSummary> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            QuestionSummary summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return authorLoader.attach(ordered);
+    }
+    
+    private Page<QuestionSummary> withAuthors(Page<QuestionSummary> page) {
+        authorLoader.attach(page.getContent());
+        return page;
     }
 }
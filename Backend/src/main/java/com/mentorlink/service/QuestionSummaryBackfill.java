@@ -0,0 +1,44 @@
+package com.mentorlink.service;
+
+import com.mentorlink.cache.QuestionCache;
+import com.mentorlink.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the denormalized summary fields (snippet, answerCount) on questions
+ * written before those fields existed, so list projections never see gaps.
+ *
+ * answerCount is counted from the embedded answers, so this runs before
+ * {@link AnswerStorageMigration} moves them out.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionSummaryBackfill {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuestionSummaryBackfill.class);
+    
+    static final int ORDER = 0;
+    
+    private final QuestionRepository questionRepository;
+    private final QuestionCache questionCache;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(ORDER)
+    public void backfill() {
+        try {
+            long updated = questionRepository.backfillSummaryFields();
+            if (updated > 0) {
+                questionCache.invalidateListings();
+                logger.info("Backfilled summary fields on {} questions", updated);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill question summary fields", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mentorlink.service;
+
+import com.mentorlink.entity.QuestionTombstone;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.repository.QuestionTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes a tombstone for every deleted question, for delta sync
+ */
+@Component
+@RequiredArgsConstructor
+public class TombstoneRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TombstoneRecorder.class);
+    
+    private final QuestionTombstoneRepository tombstoneRepository;
+    
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        if (event.getType() != QuestionChangedEvent.Type.DELETED) {
+            return;
+        }
+        try {
+            tombstoneRepository.save(new QuestionTombstone(event.getQuestionId(), LocalDateTime.now()));
+        } catch (Exception e) {
+            logger.error("Failed to record tombstone for question {}", event.getQuestionId(), e);
+        }
+    }
+}
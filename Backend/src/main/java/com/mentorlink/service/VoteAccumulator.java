@@ -0,0 +1,130 @@
+package com.mentorlink.service;
+
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.repository.QuestionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Buffers upvote deltas in memory and flushes them to Mongo in one bulk write
+ * per interval, so a burst of votes on a hot question becomes a single $inc.
+ *
+ * Pending deltas are split across lock stripes by question id. Voters take the
+ * stripe's read lock (shared) and add to a LongAdder; the flusher takes the
+ * write lock only long enough to swap the stripe's map for an empty one.
+ */
+@Component
+@RequiredArgsConstructor
+public class VoteAccumulator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VoteAccumulator.class);
+    private static final int STRIPES = 16;
+    
+    private final QuestionRepository questionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Stripe[] stripes = createStripes();
+    
+    @Value("${forum.votes.buffered:false}")
+    private boolean enabled;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Record a vote delta for a question
+     */
+    public void add(String questionId, long delta) {
+        Stripe stripe = stripeFor(questionId);
+        stripe.lock.readLock().lock();
+        try {
+            stripe.pending.computeIfAbsent(questionId, key -> new LongAdder()).add(delta);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Votes recorded for a question that have not been flushed yet
+     */
+    public long pending(String questionId) {
+        LongAdder adder = stripeFor(questionId).pending.get(questionId);
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    /**
+     * Flush all buffered deltas to Mongo
+     */
+    @Scheduled(fixedDelayString = "${forum.votes.flush-interval-ms:1000}")
+    public void flush() {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            for (Map.Entry<String, LongAdder> entry : stripe.drain().entrySet()) {
+                long delta = entry.getValue().sum();
+                if (delta != 0) {
+                    deltas.merge(entry.getKey(), delta, Long::sum);
+                }
+            }
+        }
+        
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        try {
+            questionRepository.applyUpvoteDeltas(deltas);
+        } catch (Exception e) {
+            logger.error("Failed to flush {} buffered vote deltas, re-queueing", deltas.size(), e);
+            deltas.forEach(this::add);
+            return;
+        }
+        
+        deltas.forEach((questionId, delta) ->
+            eventPublisher.publishEvent(QuestionChangedEvent.upvoted(questionId, delta.intValue())));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    private Stripe stripeFor(String questionId) {
+        return stripes[(questionId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+    
+    private static Stripe[] createStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        return stripes;
+    }
+    
+    private static final class Stripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+        
+        private Map<String, LongAdder> drain() {
+            lock.writeLock().lock();
+            try {
+                Map<String, LongAdder> drained = pending;
+                pending = new ConcurrentHashMap<>();
+                return drained;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
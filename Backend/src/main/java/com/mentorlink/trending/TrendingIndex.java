@@ -0,0 +1,459 @@
+package com.mentorlink.trending;
+
+import com.mentorlink.dto.AuthorSummary;
+import com.mentorlink.dto.QuestionCursor;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Question;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.repository.QuestionRepository;
+import com.mentorlink.service.AuthorLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * In-memory "trending" ranking: the top K questions overall and per category
+ * by a time-decayed activity score.
+ *
+ * Every activity (the question being posted, an upvote, an answer) adds a
+ * weight that halves every {@code forum.trending.half-life-hours}. Scores are
+ * kept in log space relative to a fixed origin, log(sum w * e^(lambda * t)),
+ * so an activity is a single log-add-exp and scores never need rescaling as
+ * time passes: decay lowers every score by the same amount and does not
+ * change the order.
+ *
+ * The ranking is seeded at startup from questions active within the horizon
+ * and then maintained from {@link QuestionChangedEvent}s. Reads return an
+ * immutable snapshot and never touch Mongo.
+ */
+@Component
+public class TrendingIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TrendingIndex.class);
+    
+    private static final String ALL = "*";
+    private static final int SEED_BATCH_SIZE = 1000;
+    
+    private static final double POST_WEIGHT = 1.0;
+    private static final double UPVOTE_WEIGHT = 1.0;
+    private static final double ANSWER_WEIGHT = 2.0;
+    
+    private static final Comparator<Entry> BY_SCORE = Comparator
+        .comparingDouble((Entry entry) -> entry.logScore).reversed()
+        .thenComparing(entry -> entry.summary.getId());
+    
+    private final QuestionRepository questionRepository;
+    private final AuthorLoader authorLoader;
+    private final int topK;
+    private final double lambdaPerMs;
+    private final long horizonMs;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, TreeSet<Entry>> rankings = new HashMap<>();
+    private final Map<String, List<QuestionSummary>> snapshots = new ConcurrentHashMap<>();
+    
+    private volatile boolean ready;
+    
+    public TrendingIndex(QuestionRepository questionRepository,
+                         AuthorLoader authorLoader,
+                         @Value("${forum.trending.top-k:100}") int topK,
+                         @Value("${forum.trending.half-life-hours:12}") double halfLifeHours,
+                         @Value("${forum.trending.horizon-days:7}") int horizonDays) {
+        this.questionRepository = questionRepository;
+        this.authorLoader = authorLoader;
+        this.topK = topK;
+        this.lambdaPerMs = Math.log(2) / (halfLifeHours * 3_600_000);
+        this.horizonMs = horizonDays * 86_400_000L;
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Up to {@code limit} trending questions, overall when category is null.
+     * Only the top forum.trending.top-k are ranked, so limit may not exceed it.
+     */
+    public List<QuestionSummary> top(String category, int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("limit must be between 1 and " + topK);
+        }
+        List<QuestionSummary> snapshot = snapshots.getOrDefault(key(category), Collections.emptyList());
+        return snapshot.size() <= limit ? snapshot : snapshot.subList(0, limit);
+    }
+    
+    /**
+     * Seed the ranking in the background from recently active questions
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        Thread seeder = new Thread(this::seed, "trending-index-seeder");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+    
+    void seed() {
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusNanos(horizonMs * 1_000_000);
+        Criteria recent = new Criteria().orOperator(where("createdAt").gte(since), where("updatedAt").gte(since));
+        
+        int count = 0;
+        try {
+            QuestionCursor after = null;
+            List<QuestionSummary> batch;
+            do {
+                batch = questionRepository.findSummarySlice(recent, Sort.Direction.DESC, "createdAt",
+                    after, SEED_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                authorLoader.attach(batch);
+                lock.lock();
+                try {
+                    for (QuestionSummary summary : batch) {
+                        if (!entries.containsKey(summary.getId())) {
+                            track(summary, initialScore(summary));
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                count += batch.size();
+                after = QuestionCursor.after("createdAt", batch.get(batch.size() - 1));
+            } while (batch.size() == SEED_BATCH_SIZE);
+            
+            ready = true;
+            logger.info("Trending index seeded: {} questions in {} ms", count, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Failed to seed trending index after {} questions", count, e);
+        }
+    }
+    
+    @EventListener
+    public void onQuestionChanged(QuestionChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                QuestionSummary created = summarize(event.getQuestion());
+                lock.lock();
+                try {
+                    track(created, weightAt(POST_WEIGHT, millis(created.getCreatedAt())));
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            case UPDATED:
+                replaceSummary(summarize(event.getQuestion()));
+                break;
+            case ANSWER_ADDED:
+                QuestionSummary answered = summarize(event.getQuestion());
+                if (!replaceSummary(answered)) {
+                    break;
+                }
+                addActivity(answered.getId(), ANSWER_WEIGHT);
+                break;
+            case UPVOTED:
+                onUpvoted(event.getQuestionId(), event.getUpvoteDelta());
+                break;
+            case DELETED:
+                remove(event.getQuestionId());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void onUpvoted(String questionId, int delta) {
+        if (delta <= 0) {
+            return;
+        }
+        
+        lock.lock();
+        try {
+            Entry entry = entries.get(questionId);
+            if (entry != null) {
+                QuestionSummary summary = copyOf(entry.summary);
+                summary.setUpvotes(summary.getUpvotes() + delta);
+                entry.summary = summary;
+                score(entry, logAdd(entry.logScore, weightAt(UPVOTE_WEIGHT * delta, System.currentTimeMillis())));
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        // Not tracked (older than the horizon or pruned): load it once, its
+        // stored upvotes already include this vote
+        List<QuestionSummary> loaded = authorLoader.attach(questionRepository.findSummariesByIds(List.of(questionId)));
+        if (loaded.isEmpty()) {
+            return;
+        }
+        QuestionSummary summary = loaded.get(0);
+        lock.lock();
+        try {
+            if (!entries.containsKey(questionId)) {
+                track(summary, logAdd(initialScore(summary),
+                    weightAt(UPVOTE_WEIGHT * delta, System.currentTimeMillis())));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Swap in a fresh summary for a tracked question, or start tracking it.
+     * Returns false if the question was not tracked.
+     */
+    private boolean replaceSummary(QuestionSummary summary) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(summary.getId());
+            if (entry == null) {
+                track(summary, initialScore(summary));
+                return false;
+            }
+            
+            if (!entry.categoryKey().equals(key(summary.getCategory()))) {
+                double logScore = entry.logScore;
+                untrack(entry);
+                track(summary, logScore);
+            } else {
+                entry.summary = summary;
+                score(entry, entry.logScore);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void addActivity(String questionId, double weight) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(questionId);
+            if (entry != null) {
+                score(entry, logAdd(entry.logScore, weightAt(weight, System.currentTimeMillis())));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void remove(String questionId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(questionId);
+            if (entry != null) {
+                untrack(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Drop questions that are outside every top K and have had no activity
+     * within the horizon
+     */
+    @Scheduled(fixedDelayString = "${forum.trending.prune-interval-ms:3600000}")
+    public void prune() {
+        double floor = weightAt(1.0, System.currentTimeMillis() - horizonMs);
+        lock.lock();
+        try {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.logScore < floor && !isRanked(entry)) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // All methods below must be called with the lock held
+    
+    private void track(QuestionSummary summary, double logScore) {
+        Entry entry = new Entry(summary);
+        entries.put(summary.getId(), entry);
+        score(entry, logScore);
+    }
+    
+    private void untrack(Entry entry) {
+        entries.remove(entry.summary.getId());
+        for (String key : entry.rankingKeys()) {
+            TreeSet<Entry> ranking = rankings.get(key);
+            if (ranking != null && ranking.remove(entry)) {
+                refill(key, ranking);
+                publish(key, ranking);
+            }
+        }
+    }
+    
+    /**
+     * Set an entry's score and update the rankings it belongs to
+     */
+    private void score(Entry entry, double logScore) {
+        List<String> keys = entry.rankingKeys();
+        boolean[] wasRanked = new boolean[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            TreeSet<Entry> ranking = rankings.computeIfAbsent(keys.get(i), k -> new TreeSet<>(BY_SCORE));
+            wasRanked[i] = ranking.remove(entry);
+        }
+        entry.logScore = logScore;
+        
+        for (int i = 0; i < keys.size(); i++) {
+            TreeSet<Entry> ranking = rankings.get(keys.get(i));
+            if (ranking.size() < topK || BY_SCORE.compare(entry, ranking.last()) < 0) {
+                ranking.add(entry);
+                if (ranking.size() > topK) {
+                    ranking.pollLast();
+                }
+            }
+            if (wasRanked[i] || ranking.contains(entry)) {
+                publish(keys.get(i), ranking);
+            }
+        }
+    }
+    
+    /**
+     * After a removal, promote the best tracked question not yet in the ranking
+     */
+    private void refill(String key, TreeSet<Entry> ranking) {
+        Entry best = null;
+        for (Entry candidate : entries.values()) {
+            if (ranking.contains(candidate) || !candidate.rankingKeys().contains(key)) {
+                continue;
+            }
+            if (best == null || BY_SCORE.compare(candidate, best) < 0) {
+                best = candidate;
+            }
+        }
+        if (best != null) {
+            ranking.add(best);
+        }
+    }
+    
+    private boolean isRanked(Entry entry) {
+        for (String key : entry.rankingKeys()) {
+            TreeSet<Entry> ranking = rankings.get(key);
+            if (ranking != null && ranking.contains(entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void publish(String key, TreeSet<Entry> ranking) {
+        List<QuestionSummary> snapshot = new ArrayList<>(ranking.size());
+        for (Entry entry : ranking) {
+            snapshot.add(entry.summary);
+        }
+        snapshots.put(key, Collections.unmodifiableList(snapshot));
+    }
+    
+    /**
+     * Score for a question seen for the first time: the post at createdAt,
+     * plus its existing votes and answers at its last update (individual
+     * vote times are not stored)
+     */
+    private double initialScore(QuestionSummary summary) {
+        long createdAt = millis(summary.getCreatedAt());
+        long lastActivity = summary.getUpdatedAt() != null ? millis(summary.getUpdatedAt()) : createdAt;
+        double logScore = weightAt(POST_WEIGHT, createdAt);
+        double activity = UPVOTE_WEIGHT * nonNull(summary.getUpvotes()) + ANSWER_WEIGHT * nonNull(summary.getAnswerCount());
+        if (activity > 0) {
+            logScore = logAdd(logScore, weightAt(activity, lastActivity));
+        }
+        return logScore;
+    }
+    
+    /**
+     * log(weight * e^(lambda * t)), one activity's contribution to a score
+     */
+    private double weightAt(double weight, long timeMs) {
+        return Math.log(weight) + lambdaPerMs * timeMs;
+    }
+    
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+    
+    private QuestionSummary summarize(Question question) {
+        QuestionSummary summary = new QuestionSummary();
+        summary.setId(question.getId());
+        summary.setTitle(question.getTitle());
+        summary.setSnippet(QuestionSummary.snippetOf(question.getContent()));
+        summary.setCategory(question.getCategory());
+        summary.setTags(question.getTags());
+        summary.setUpvotes(question.getUpvotes());
+        summary.setAnswerCount(question.getAnswerCount());
+        summary.setAuthorId(AuthorLoader.idOf(question.getAuthor()));
+        if (question.getAuthorSnapshot() != null) {
+            summary.setAuthor(AuthorSummary.from(question.getAuthorSnapshot()));
+        }
+        summary.setCreatedAt(question.getCreatedAt());
+        summary.setUpdatedAt(question.getUpdatedAt());
+        authorLoader.attach(List.of(summary));
+        return summary;
+    }
+    
+    private static QuestionSummary copyOf(QuestionSummary summary) {
+        return new QuestionSummary(summary.getId(), summary.getTitle(), summary.getSnippet(),
+            summary.getCategory(), summary.getTags(), summary.getUpvotes(), summary.getAnswerCount(),
+            summary.getAuthorId(), summary.getAuthor(), summary.getCreatedAt(), summary.getUpdatedAt());
+    }
+    
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : System.currentTimeMillis();
+    }
+    
+    private static int nonNull(Integer value) {
+        return value != null ? value : 0;
+    }
+    
+    private static String key(String category) {
+        return category != null && !category.isEmpty() ? category.toLowerCase() : ALL;
+    }
+    
+    private static final class Entry {
+        private QuestionSummary summary;
+        private double logScore;
+        
+        private Entry(QuestionSummary summary) {
+            this.summary = summary;
+        }
+        
+        private String categoryKey() {
+            return key(summary.getCategory());
+        }
+        
+        private List<String> rankingKeys() {
+            String category = categoryKey();
+            return ALL.equals(category) ? List.of(ALL) : List.of(ALL, category);
+        }
+    }
+}
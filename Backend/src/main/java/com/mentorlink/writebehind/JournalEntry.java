@@ -0,0 +1,58 @@
+package com.mentorlink.writebehind;
+
+import com.mentorlink.entity.AuthorSnapshot;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One acknowledged question mutation, as written to the write-behind journal.
+ * Only the fields relevant to the entry's type are set.
+ */
+@Data
+@NoArgsConstructor
+public class JournalEntry {
+    
+    public enum Type {
+        CREATE,
+        UPDATE,
+        ANSWER,
+        UPVOTE,
+        DELETE
+    }
+    
+    private long seq;
+    
+    private Type type;
+    
+    private String questionId;
+    
+    /** Question fields for CREATE and UPDATE, answer content for ANSWER */
+    private String title;
+    
+    private String content;
+    
+    private String category;
+    
+    private List<String> tags;
+    
+    /** Question author for CREATE, answer author for ANSWER */
+    private String authorId;
+    
+    /** Author display fields, when author snapshots are enabled */
+    private AuthorSnapshot authorSnapshot;
+    
+    private String answerId;
+    
+    /** Creation time for CREATE and ANSWER, edit or vote time for UPDATE and UPVOTE */
+    private LocalDateTime time;
+    
+    private int delta;
+    
+    JournalEntry(Type type, String questionId) {
+        this.type = type;
+        this.questionId = questionId;
+    }
+}
@@ -0,0 +1,198 @@
+package com.mentorlink.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only local journal of acknowledged mutations, one JSON entry per
+ * line, split into segments named by their first sequence number.
+ *
+ * Appends only write to the current segment; {@link #sync(long)} makes them
+ * durable with group commit, so concurrent writers waiting for the same fsync
+ * share it. {@link #seal()} closes the current segment and starts a new one;
+ * sealed segments are deleted once everything they hold has reached Mongo.
+ *
+ * Not thread-safe for appends and sealing: the caller serializes them.
+ */
+class MutationJournal {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final String nodeId;
+    
+    private final Object syncLock = new Object();
+    private FileChannel current;
+    private Path currentPath;
+    private volatile long written;
+    private volatile long synced;
+    
+    MutationJournal(Path directory, ObjectMapper objectMapper, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        this.nodeId = readOrCreateNodeId();
+    }
+    
+    /**
+     * Stable id of this journal, used to tag the writes it produces
+     */
+    String nodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * Existing segment files in sequence order
+     */
+    List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted((a, b) -> Long.compare(segmentSeq(a), segmentSeq(b)))
+                .collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Entries of one segment in order. A torn last line (crash mid-append)
+     * is skipped.
+     */
+    List<JournalEntry> read(Path segment) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, JournalEntry.class));
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable journal entry in {}", segment.getFileName());
+                }
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Write an entry to the current segment (not yet durable)
+     */
+    void append(JournalEntry entry) {
+        try {
+            if (current == null) {
+                open(entry.getSeq());
+            }
+            byte[] line = (objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            written = entry.getSeq();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to write-behind journal", e);
+        }
+    }
+    
+    /**
+     * Block until every entry up to seq is on disk
+     */
+    void sync(long seq) {
+        if (!fsync || synced >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= seq) {
+                return;
+            }
+            long target = written;
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync write-behind journal", e);
+            }
+            synced = target;
+        }
+    }
+    
+    /**
+     * Close the current segment; the next append starts a new one. Returns the
+     * sealed segment, or null if nothing was written to it.
+     */
+    Path seal() {
+        synchronized (syncLock) {
+            if (current == null) {
+                return null;
+            }
+            try {
+                current.force(false);
+                current.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to seal write-behind journal segment", e);
+            }
+            synced = written;
+            Path sealed = currentPath;
+            current = null;
+            currentPath = null;
+            return sealed;
+        }
+    }
+    
+    void delete(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                logger.warn("Failed to delete journal segment {}", segment.getFileName(), e);
+            }
+        }
+    }
+    
+    private void open(long firstSeq) throws IOException {
+        synchronized (syncLock) {
+            currentPath = directory.resolve(SEGMENT_PREFIX + firstSeq + SEGMENT_SUFFIX);
+            current = FileChannel.open(currentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+    
+    private String readOrCreateNodeId() throws IOException {
+        Path file = directory.resolve("node-id");
+        if (Files.exists(file)) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Files.write(file, id.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+    
+    private static long segmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
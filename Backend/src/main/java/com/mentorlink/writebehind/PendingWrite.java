@@ -0,0 +1,92 @@
+package com.mentorlink.writebehind;
+
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All not-yet-flushed mutations of one question, coalesced: field edits
+ * collapse into one $set, votes into one $inc, answers into one $push. A
+ * pending create absorbs later mutations into the document to insert, and a
+ * delete discards everything before it.
+ */
+final class PendingWrite {
+    
+    /** Question to insert, when the create itself is still pending */
+    Question created;
+    
+    final Map<String, Object> sets = new LinkedHashMap<>();
+    
+    /** Whether title, content or category were edited (not just touched) */
+    boolean edited;
+    
+    final List<Answer> answers = new ArrayList<>();
+    
+    int upvotes;
+    
+    boolean deleted;
+    
+    long maxSeq;
+    
+    void create(Question question, long seq) {
+        created = question;
+        maxSeq = seq;
+    }
+    
+    void set(String title, String content, String snippet, String category, LocalDateTime updatedAt, long seq) {
+        if (created != null) {
+            created.setTitle(title);
+            created.setContent(content);
+            created.setSnippet(snippet);
+            created.setCategory(category);
+            created.setUpdatedAt(updatedAt);
+        } else {
+            sets.put("title", title);
+            sets.put("content", content);
+            sets.put("snippet", snippet);
+            sets.put("category", category);
+            sets.put("updatedAt", updatedAt);
+        }
+        edited = true;
+        maxSeq = seq;
+    }
+    
+    void addAnswer(Answer answer, long seq) {
+        answers.add(answer);
+        if (created != null) {
+            created.setAnswerCount(created.getAnswerCount() + 1);
+            created.setUpdatedAt(answer.getCreatedAt());
+        } else {
+            sets.put("updatedAt", answer.getCreatedAt());
+        }
+        maxSeq = seq;
+    }
+    
+    void upvote(int delta, LocalDateTime time, long seq) {
+        upvotes += delta;
+        if (created != null) {
+            created.setUpvotes(created.getUpvotes() + delta);
+            if (time != null) {
+                created.setUpdatedAt(time);
+            }
+        } else if (time != null) {
+            sets.put("updatedAt", time);
+        }
+        maxSeq = seq;
+    }
+    
+    void delete(long seq) {
+        created = null;
+        sets.clear();
+        edited = false;
+        answers.clear();
+        upvotes = 0;
+        deleted = true;
+        maxSeq = seq;
+    }
+}
@@ -0,0 +1,711 @@
+package com.mentorlink.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mentorlink.dto.QuestionSummary;
+import com.mentorlink.entity.Answer;
+import com.mentorlink.entity.Question;
+import com.mentorlink.entity.QuestionVote;
+import com.mentorlink.entity.User;
+import com.mentorlink.event.QuestionChangedEvent;
+import com.mentorlink.service.AuthorLoader;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Optional write-behind pipeline for question mutations
+ * (forum.writebehind.enabled).
+ *
+ * A mutation is acknowledged once it is appended and synced to the local
+ * {@link MutationJournal}, and only then folded into the pending writes, so
+ * a mutation whose sync failed is never written. Pending mutations are coalesced per question
+ * ({@link PendingWrite}) and flushed as unordered bulk writes when
+ * forum.writebehind.batch-size questions are pending or every
+ * forum.writebehind.max-latency-ms, whichever comes first. Each flush seals
+ * the current journal segment, and a segment is deleted once its batch has
+ * been written.
+ *
+ * Every question write is conditional on the per-node sequence number it
+ * stores (journalSeq.&lt;node&gt;), so writing a batch twice is harmless. A
+ * failed batch is retried as-is before newer mutations are flushed, and on
+ * startup the remaining segments are replayed in order, one batch per
+ * segment, before any request is served.
+ *
+ * Reads go to Mongo and see a mutation once it is flushed; change events are
+ * published after the flush.
+ */
+@Component
+public class WriteBehindQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+    
+    private static final int DUPLICATE_KEY = 11000;
+    
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${forum.writebehind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${forum.writebehind.journal-dir:data/forum-journal}")
+    private String journalDir;
+    
+    @Value("${forum.writebehind.fsync:true}")
+    private boolean fsync;
+    
+    @Value("${forum.writebehind.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${forum.writebehind.max-latency-ms:200}")
+    private long maxLatencyMs;
+    
+    @Value("${forum.writebehind.max-pending:100000}")
+    private int maxPending;
+    
+    @Value("${forum.writebehind.retry-window-ms:30000}")
+    private long retryWindowMs;
+    
+    @Value("${forum.answers.storage:embedded}")
+    private String answerStorage;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, PendingWrite> pending = new HashMap<>();
+    
+    /** Journaled entries not yet known to be on disk, by seq; folded into pending once they are */
+    private final NavigableMap<Long, JournalEntry> unsynced = new TreeMap<>();
+    private long lastSeq;
+    
+    private MutationJournal journal;
+    private String seqField;
+    private ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    
+    /** Batch whose write failed; retried before anything newer is flushed */
+    private Batch retry;
+    private long retryingSince;
+    private boolean retryOverdue;
+    
+    public WriteBehindQueue(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                            ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Longest an acknowledged mutation is expected to wait before it reaches
+     * Mongo: one flush interval plus forum.writebehind.retry-window-ms of
+     * retrying a failed batch. 0 when write-behind is off.
+     */
+    public long maxFlushDelayMs() {
+        return enabled ? maxLatencyMs + retryWindowMs : 0;
+    }
+    
+    /**
+     * Open the journal, replay whatever a previous run left in it and start
+     * the flusher
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        
+        journal = new MutationJournal(Paths.get(journalDir), objectMapper, fsync);
+        seqField = "journalSeq." + journal.nodeId();
+        lastSeq = Math.max(System.currentTimeMillis() * 1000, maxStoredSeq());
+        replay();
+        
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "question-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, maxLatencyMs, maxLatencyMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Highest sequence number this node has stored on a question. Sequence
+     * numbers start from the clock, and the conditional writes skip any
+     * number at or below the stored one, so after the clock went back they
+     * must continue from here. One unindexed query, at startup only.
+     */
+    private long maxStoredSeq() {
+        Query latest = new Query(where(seqField).exists(true)).with(Sort.by(Sort.Direction.DESC, seqField)).limit(1);
+        latest.fields().include(seqField);
+        Document question = mongoTemplate.findOne(latest, Document.class, mongoTemplate.getCollectionName(Question.class));
+        Document seqs = question != null ? question.get("journalSeq", Document.class) : null;
+        Object seq = seqs != null ? seqs.get(journal.nodeId()) : null;
+        return seq instanceof Number ? ((Number) seq).longValue() : 0;
+    }
+    
+    public void create(Question question) {
+        JournalEntry entry = new JournalEntry(JournalEntry.Type.CREATE, question.getId());
+        entry.setTitle(question.getTitle());
+        entry.setContent(question.getContent());
+        entry.setCategory(question.getCategory());
+        entry.setTags(question.getTags());
+        entry.setAuthorId(AuthorLoader.idOf(question.getAuthor()));
+        entry.setAuthorSnapshot(question.getAuthorSnapshot());
+        entry.setTime(question.getCreatedAt());
+        record(entry);
+    }
+    
+    public void update(String questionId, String title, String content, String category, LocalDateTime updatedAt) {
+        JournalEntry entry = new JournalEntry(JournalEntry.Type.UPDATE, questionId);
+        entry.setTitle(title);
+        entry.setContent(content);
+        entry.setCategory(category);
+        entry.setTime(updatedAt);
+        record(entry);
+    }
+    
+    public void addAnswer(String questionId, Answer answer) {
+        JournalEntry entry = new JournalEntry(JournalEntry.Type.ANSWER, questionId);
+        entry.setAnswerId(answer.getId());
+        entry.setContent(answer.getContent());
+        entry.setAuthorId(AuthorLoader.idOf(answer.getAuthor()));
+        entry.setAuthorSnapshot(answer.getAuthorSnapshot());
+        entry.setTime(answer.getCreatedAt());
+        record(entry);
+    }
+    
+    public void upvote(String questionId, int delta) {
+        JournalEntry entry = new JournalEntry(JournalEntry.Type.UPVOTE, questionId);
+        entry.setDelta(delta);
+        entry.setTime(LocalDateTime.now());
+        record(entry);
+    }
+    
+    public void delete(String questionId) {
+        record(new JournalEntry(JournalEntry.Type.DELETE, questionId));
+    }
+    
+    /**
+     * Copy of a question whose create has not been flushed yet, or null
+     */
+    public Question pendingCreate(String questionId) {
+        lock.lock();
+        try {
+            PendingWrite write = pending.get(questionId);
+            if (write == null && retry != null) {
+                write = retry.writes.get(questionId);
+            }
+            if (write == null || write.created == null) {
+                return null;
+            }
+            Question copy = copyOf(write.created);
+            copy.setAnswers(new ArrayList<>(write.answers));
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Acknowledged votes on a question that have not been flushed yet
+     */
+    public int pendingUpvotes(String questionId) {
+        lock.lock();
+        try {
+            int upvotes = 0;
+            PendingWrite write = pending.get(questionId);
+            if (write != null && write.created == null) {
+                upvotes += write.upvotes;
+            }
+            PendingWrite failed = retry != null ? retry.writes.get(questionId) : null;
+            if (failed != null && failed.created == null) {
+                upvotes += failed.upvotes;
+            }
+            return upvotes;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Journal a mutation, wait until it is durable and fold it into the
+     * pending writes. A mutation whose sync fails is never flushed.
+     */
+    private void record(JournalEntry entry) {
+        long seq;
+        lock.lock();
+        try {
+            if (pending.size() >= maxPending && !pending.containsKey(entry.getQuestionId())) {
+                throw new RuntimeException("Too many pending writes, try again later");
+            }
+            seq = ++lastSeq;
+            entry.setSeq(seq);
+            journal.append(entry);
+            unsynced.put(seq, entry);
+        } finally {
+            lock.unlock();
+        }
+        
+        try {
+            journal.sync(seq);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                // A flush that sealed the segment in the meantime made it durable after all
+                if (unsynced.remove(seq) != null) {
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        boolean full;
+        lock.lock();
+        try {
+            applySynced(seq);
+            full = pending.size() >= batchSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+    
+    /**
+     * Fold every entry up to seq into the pending writes, in journal order.
+     * Caller holds the lock.
+     */
+    private void applySynced(long seq) {
+        while (!unsynced.isEmpty() && unsynced.firstKey() <= seq) {
+            apply(pending, unsynced.pollFirstEntry().getValue());
+        }
+    }
+    
+    private void apply(Map<String, PendingWrite> writes, JournalEntry entry) {
+        PendingWrite write = writes.computeIfAbsent(entry.getQuestionId(), id -> new PendingWrite());
+        switch (entry.getType()) {
+            case CREATE:
+                write.create(toQuestion(entry), entry.getSeq());
+                break;
+            case UPDATE:
+                write.set(entry.getTitle(), entry.getContent(), snippetOf(entry.getContent()),
+                    entry.getCategory(), entry.getTime(), entry.getSeq());
+                break;
+            case ANSWER:
+                write.addAnswer(toAnswer(entry), entry.getSeq());
+                break;
+            case UPVOTE:
+                write.upvote(entry.getDelta(), entry.getTime(), entry.getSeq());
+                break;
+            case DELETE:
+                write.delete(entry.getSeq());
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Write pending mutations to Mongo: first a previously failed batch, then
+     * everything acknowledged since the last flush
+     */
+    void flush() {
+        flushRequested.set(false);
+        try {
+            if (retry != null) {
+                Batch failed = write(retry, true);
+                setRetry(failed);
+                if (failed != null) {
+                    if (!retryOverdue && System.currentTimeMillis() - retryingSince > retryWindowMs) {
+                        retryOverdue = true;
+                        logger.error("Write-behind batch of {} questions still failing after {} ms; "
+                            + "delta syncs may miss it once written", failed.writes.size(), retryWindowMs);
+                    }
+                    return;
+                }
+            }
+            
+            Batch batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Sealing forces the whole segment to disk, so every entry in
+                // it belongs to this batch
+                Path segment = journal.seal();
+                applySynced(Long.MAX_VALUE);
+                batch = new Batch(pending, segment);
+                pending = new HashMap<>();
+            } finally {
+                lock.unlock();
+            }
+            
+            setRetry(write(batch, true));
+        } catch (Exception e) {
+            logger.error("Write-behind flush failed", e);
+        }
+    }
+    
+    private void setRetry(Batch batch) {
+        lock.lock();
+        try {
+            if (batch == null) {
+                retryOverdue = false;
+            } else if (retry == null) {
+                retryingSince = System.currentTimeMillis();
+            }
+            retry = batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Write one batch. Returns the part that failed (to retry with the same
+     * grouping), or null when everything was written and its journal
+     * segment deleted. With publish, change events go out for what was
+     * written.
+     */
+    private Batch write(Batch batch, boolean publish) {
+        Map<String, PendingWrite> writes = batch.writes;
+        Set<String> failed = new HashSet<>();
+        
+        try {
+            failed.addAll(insertAnswers(writes));
+            
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Question.class);
+            List<String> ops = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            writes.forEach((questionId, write) -> {
+                if (failed.contains(questionId)) {
+                    return;
+                }
+                addQuestionOp(bulk, questionId, write);
+                ops.add(questionId);
+                if (write.deleted) {
+                    deleted.add(questionId);
+                }
+            });
+            
+            if (!ops.isEmpty()) {
+                try {
+                    bulk.execute();
+                } catch (BulkOperationException e) {
+                    for (BulkWriteError error : e.getErrors()) {
+                        // A duplicate key on a create means an earlier attempt inserted it
+                        if (error.getCode() != DUPLICATE_KEY) {
+                            failed.add(ops.get(error.getIndex()));
+                            logger.warn("Write-behind write for question {} failed: {}",
+                                ops.get(error.getIndex()), error.getMessage());
+                        }
+                    }
+                }
+            }
+            
+            if (!deleted.isEmpty()) {
+                deleted.removeAll(failed);
+                mongoTemplate.remove(new Query(where("questionId").in(deleted)), Answer.class);
+                mongoTemplate.remove(new Query(where("questionId").in(deleted)), QuestionVote.class);
+            }
+        } catch (Exception e) {
+            logger.error("Write-behind batch of {} questions failed, will retry", writes.size(), e);
+            return batch;
+        }
+        
+        Map<String, PendingWrite> written = new LinkedHashMap<>(writes);
+        written.keySet().removeAll(failed);
+        if (publish) {
+            publishEvents(written);
+        }
+        
+        if (!failed.isEmpty()) {
+            Map<String, PendingWrite> remaining = new HashMap<>(writes);
+            remaining.keySet().retainAll(failed);
+            return new Batch(remaining, batch.segment);
+        }
+        if (batch.segment != null) {
+            journal.delete(List.of(batch.segment));
+        }
+        return null;
+    }
+    
+    /**
+     * In collection storage mode, insert new answers into the answers
+     * collection. Returns the questions whose answers could not be written;
+     * their question update is held back so it is not applied twice.
+     */
+    private Set<String> insertAnswers(Map<String, PendingWrite> writes) {
+        Set<String> failed = new HashSet<>();
+        if (!storesAnswersInCollection()) {
+            return failed;
+        }
+        
+        List<Answer> answers = new ArrayList<>();
+        writes.forEach((questionId, write) -> answers.addAll(write.answers));
+        if (answers.isEmpty()) {
+            return failed;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Answer.class);
+        bulk.insert(answers);
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    failed.add(answers.get(error.getIndex()).getQuestionId());
+                }
+            }
+        }
+        return failed;
+    }
+    
+    private void addQuestionOp(BulkOperations bulk, String questionId, PendingWrite write) {
+        Query byId = new Query(where("_id").is(questionId));
+        if (write.deleted) {
+            bulk.remove(byId);
+            return;
+        }
+        
+        Query unapplied = new Query(where("_id").is(questionId).and(seqField).not().gte(write.maxSeq));
+        Update update = new Update();
+        if (write.created != null) {
+            Question question = copyOf(write.created);
+            if (!storesAnswersInCollection()) {
+                question.setAnswers(new ArrayList<>(write.answers));
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(question, document);
+            document.remove("_id");
+            document.remove("version");
+            document.forEach(update::set);
+            update.inc("version", 1);
+            update.set(seqField, write.maxSeq);
+            bulk.upsert(unapplied, update);
+            return;
+        }
+        
+        write.sets.forEach(update::set);
+        if (write.upvotes != 0) {
+            update.inc("upvotes", write.upvotes);
+        }
+        if (!write.answers.isEmpty()) {
+            update.inc("answerCount", write.answers.size());
+            if (!storesAnswersInCollection()) {
+                update.push("answers").each(write.answers.toArray());
+            }
+        }
+        update.inc("version", 1);
+        update.set(seqField, write.maxSeq);
+        bulk.updateOne(unapplied, update);
+    }
+    
+    /**
+     * Publish change events for written questions, reloading them in one
+     * query so listeners see the stored state
+     */
+    private void publishEvents(Map<String, PendingWrite> written) {
+        List<String> ids = new ArrayList<>();
+        written.forEach((questionId, write) -> {
+            if (!write.deleted) {
+                ids.add(questionId);
+            }
+        });
+        Map<String, Question> questions = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Question question : mongoTemplate.find(new Query(where("_id").in(ids)), Question.class)) {
+                questions.put(question.getId(), question);
+            }
+        }
+        
+        written.forEach((questionId, write) -> {
+            if (write.deleted) {
+                eventPublisher.publishEvent(QuestionChangedEvent.deleted(questionId));
+                return;
+            }
+            Question question = questions.get(questionId);
+            if (question == null) {
+                return;
+            }
+            if (write.created != null) {
+                eventPublisher.publishEvent(QuestionChangedEvent.created(asCreated(question, write)));
+            } else if (write.edited) {
+                eventPublisher.publishEvent(QuestionChangedEvent.updated(question));
+            }
+            for (Answer answer : write.answers) {
+                eventPublisher.publishEvent(QuestionChangedEvent.answerAdded(question, answer));
+            }
+            if (write.upvotes != 0) {
+                eventPublisher.publishEvent(QuestionChangedEvent.upvoted(questionId, write.upvotes));
+            }
+        });
+    }
+    
+    /**
+     * Re-apply journal segments left by a previous run, one batch per
+     * segment in order (the grouping they were originally flushed with), so
+     * the conditional writes skip whatever had already reached Mongo.
+     *
+     * This runs while the context is still starting, so no change events are
+     * published: their listeners may not be initialized yet, and the read
+     * models build themselves from Mongo once the application is ready.
+     */
+    private void replay() throws IOException {
+        List<Path> segments = journal.segments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        
+        logger.info("Replaying {} write-behind journal segments", segments.size());
+        for (Path segment : segments) {
+            Map<String, PendingWrite> writes = new HashMap<>();
+            for (JournalEntry entry : journal.read(segment)) {
+                apply(writes, entry);
+                lastSeq = Math.max(lastSeq, entry.getSeq());
+            }
+            Batch failed = write(new Batch(writes, segment), false);
+            if (failed != null) {
+                throw new IllegalStateException("Failed to replay write-behind journal segment " + segment.getFileName());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+    
+    private boolean storesAnswersInCollection() {
+        return "collection".equalsIgnoreCase(answerStorage);
+    }
+    
+    private Question toQuestion(JournalEntry entry) {
+        Question question = new Question();
+        question.setId(entry.getQuestionId());
+        question.setTitle(entry.getTitle());
+        question.setContent(entry.getContent());
+        question.setSnippet(snippetOf(entry.getContent()));
+        question.setCategory(entry.getCategory());
+        question.setAuthor(userRef(entry.getAuthorId()));
+        question.setAuthorSnapshot(entry.getAuthorSnapshot());
+        question.setTags(entry.getTags() != null ? entry.getTags() : new ArrayList<>());
+        question.setUpvotes(0);
+        question.setAnswerCount(0);
+        question.setCreatedAt(entry.getTime());
+        question.setUpdatedAt(entry.getTime());
+        return question;
+    }
+    
+    private Answer toAnswer(JournalEntry entry) {
+        Answer answer = new Answer();
+        answer.setId(entry.getAnswerId());
+        if (storesAnswersInCollection()) {
+            answer.setQuestionId(entry.getQuestionId());
+        }
+        answer.setContent(entry.getContent());
+        answer.setAuthor(userRef(entry.getAuthorId()));
+        answer.setAuthorSnapshot(entry.getAuthorSnapshot());
+        answer.setUpvotes(0);
+        answer.setCreatedAt(entry.getTime());
+        answer.setUpdatedAt(entry.getTime());
+        return answer;
+    }
+    
+    private static User userRef(String userId) {
+        User user = new User();
+        user.setId(userId);
+        return user;
+    }
+    
+    private static String snippetOf(String content) {
+        return QuestionSummary.snippetOf(content);
+    }
+    
+    /**
+     * A stored question as it was before the answers and votes its pending
+     * create absorbed, so the CREATED event does not count them a second
+     * time alongside their own ANSWER_ADDED and UPVOTED events
+     */
+    private static Question asCreated(Question stored, PendingWrite write) {
+        Question created = copyOf(stored);
+        created.setVersion(stored.getVersion());
+        created.setAnswers(new ArrayList<>());
+        created.setAnswerCount(stored.getAnswerCount() - write.answers.size());
+        created.setUpvotes(stored.getUpvotes() - write.upvotes);
+        return created;
+    }
+    
+    private static Question copyOf(Question source) {
+        Question copy = new Question();
+        copy.setId(source.getId());
+        copy.setTitle(source.getTitle());
+        copy.setContent(source.getContent());
+        copy.setSnippet(source.getSnippet());
+        copy.setCategory(source.getCategory());
+        copy.setAuthor(source.getAuthor());
+        copy.setAuthorSnapshot(source.getAuthorSnapshot());
+        copy.setAnswers(new ArrayList<>(source.getAnswers()));
+        copy.setAnswerCount(source.getAnswerCount());
+        copy.setUpvotes(source.getUpvotes());
+        copy.setTags(source.getTags());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+    
+    private static final class Batch {
+        private final Map<String, PendingWrite> writes;
+        private final Path segment;
+        
+        private Batch(Map<String, PendingWrite> writes, Path segment) {
+            this.writes = writes;
+            this.segment = segment;
+        }
+    }
+}